@@ -0,0 +1,99 @@
+package io.github.theramu.dependencyloader;
+
+import io.github.theramu.dependencyloader.util.DigestUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+
+/**
+ * Generates the jars and libraries folders the benchmarks run against.
+ *
+ * @author agent
+ * @since 2026/10/17 3:27
+ */
+final class BenchmarkArtifacts {
+
+    static final String GROUP_ID = "io.github.theramu.benchmark";
+    private static final Logger SILENT_LOGGER = Logger.getLogger("DependencyLoaderBenchmark");
+
+    static {
+        SILENT_LOGGER.setLevel(Level.OFF);
+        SILENT_LOGGER.setUseParentHandlers(false);
+    }
+
+    private BenchmarkArtifacts() {
+    }
+
+    /**
+     * Creates a jar of about the given size, made of a manifest and one entry of incompressible bytes.
+     */
+    static byte[] newJar(int size, long seed) throws IOException {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        ByteArrayOutputStream output = new ByteArrayOutputStream(size + 1024);
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().putValue("Manifest-Version", "1.0");
+        try (JarOutputStream jar = new JarOutputStream(output, manifest)) {
+            jar.putNextEntry(new ZipEntry("data.bin"));
+            jar.write(data);
+            jar.closeEntry();
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Writes the jar into the libraries folder using the Maven layout, and returns its file.
+     */
+    static File writeArtifact(File librariesFolder, String artifactId, String version, byte[] jar) throws IOException {
+        File file = getArtifactFile(librariesFolder, artifactId, version);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), jar);
+        return file;
+    }
+
+    static File getArtifactFile(File librariesFolder, String artifactId, String version) {
+        String path = String.join(File.separator, GROUP_ID.replace(".", File.separator), artifactId, version, artifactId + "-" + version + ".jar");
+        return new File(librariesFolder, path);
+    }
+
+    static String getNotation(String artifactId, String version) {
+        return GROUP_ID + ":" + artifactId + ":" + version;
+    }
+
+    static String sha1(byte[] data) {
+        return DigestUtil.toHex(DigestUtil.newDigest("SHA-1").digest(data));
+    }
+
+    /**
+     * Creates a loader that logs nothing, reports to no listener and injects into its own class loader,
+     * so that repeated invocations do not grow the class path of the benchmark.
+     */
+    static DependencyLoader newLoader(File librariesFolder) {
+        DependencyLoader loader = new DependencyLoader(SILENT_LOGGER, librariesFolder);
+        loader.setIsolated(true);
+        loader.getListeners().clear();
+        return loader;
+    }
+
+    static File createTempFolder() throws IOException {
+        return Files.createTempDirectory("dependency-loader-benchmark").toFile();
+    }
+
+    static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
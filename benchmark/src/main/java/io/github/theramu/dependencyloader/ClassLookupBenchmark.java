@@ -0,0 +1,80 @@
+package io.github.theramu.dependencyloader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Compares lookups of missing resources in a {@link DependencyClassLoader}, which tries every jar in turn,
+ * with an {@link IndexedDependencyClassLoader}, which only tries the jars containing the package.
+ *
+ * @author agent
+ * @since 2026/10/17 3:51
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassLookupBenchmark {
+
+    private static final String MISSING_RESOURCE = "io/github/theramu/benchmark/Missing.class";
+
+    @Param({"10", "100"})
+    private int jarCount;
+
+    private File librariesFolder;
+    private DependencyClassLoader plainClassLoader;
+    private IndexedDependencyClassLoader indexedClassLoader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        librariesFolder = BenchmarkArtifacts.createTempFolder();
+        byte[] jar = BenchmarkArtifacts.newJar(1024, 0);
+        List<File> files = new ArrayList<>(jarCount);
+        for (int i = 0; i < jarCount; i++) {
+            files.add(BenchmarkArtifacts.writeArtifact(librariesFolder, "lookup-" + i, "1.0", jar));
+        }
+        ClassLoader parent = ClassLookupBenchmark.class.getClassLoader();
+        plainClassLoader = new DependencyClassLoader(parent);
+        plainClassLoader.addJarFiles(files);
+        indexedClassLoader = new IndexedDependencyClassLoader(parent, new PackageIndex(Logger.getAnonymousLogger(), librariesFolder));
+        indexedClassLoader.addJarFiles(files);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        plainClassLoader.close();
+        indexedClassLoader.close();
+        BenchmarkArtifacts.delete(librariesFolder);
+    }
+
+    @Benchmark
+    public URL findMissingResourcePlain() {
+        return plainClassLoader.findResource(MISSING_RESOURCE);
+    }
+
+    @Benchmark
+    public URL findMissingResourceIndexed() {
+        return indexedClassLoader.findResource(MISSING_RESOURCE);
+    }
+}
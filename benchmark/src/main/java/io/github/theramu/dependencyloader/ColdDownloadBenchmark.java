@@ -0,0 +1,93 @@
+package io.github.theramu.dependencyloader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a cold start: downloading, verifying and loading every dependency into an empty libraries folder
+ * from a {@link StandInRepository} with the given latency and bandwidth.
+ *
+ * @author agent
+ * @since 2026/10/17 3:27
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ColdDownloadBenchmark {
+
+    @Param({"8"})
+    private int dependencyCount;
+
+    @Param({"65536", "4194304"})
+    private int jarSize;
+
+    /**
+     * The delay in milliseconds before each response.
+     */
+    @Param({"0", "20"})
+    private long latency;
+
+    /**
+     * The bandwidth in bytes per second of each response, or 0 for no limit.
+     */
+    @Param({"0", "10485760"})
+    private long bandwidth;
+
+    private StandInRepository repository;
+    private String[] repositories;
+    private String[] dependencies;
+    private File librariesFolder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        repository = new StandInRepository(latency, bandwidth);
+        repositories = new String[]{repository.getUrl()};
+        dependencies = new String[dependencyCount];
+        for (int i = 0; i < dependencyCount; i++) {
+            String artifactId = "cold-" + i;
+            repository.addArtifact(artifactId, "1.0", BenchmarkArtifacts.newJar(jarSize, i));
+            dependencies[i] = BenchmarkArtifacts.getNotation(artifactId, "1.0");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        repository.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void createLibrariesFolder() throws IOException {
+        librariesFolder = BenchmarkArtifacts.createTempFolder();
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteLibrariesFolder() {
+        BenchmarkArtifacts.delete(librariesFolder);
+    }
+
+    @Benchmark
+    public boolean loadDependencies() {
+        if (!BenchmarkArtifacts.newLoader(librariesFolder).loadDependencies(dependencies, repositories)) {
+            throw new IllegalStateException("Failed to download the dependencies");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.theramu.dependencyloader;
+
+import io.github.theramu.dependencyloader.util.ReflectUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures class path injection of a whole batch: {@link ReflectUtil#loadJarFiles(Collection)} into a fresh
+ * class loader holding the library, as if the library had just been loaded, and {@link DependencyClassLoader#addJarFiles(List)}
+ * into a fresh {@link DependencyClassLoader}.
+ *
+ * @author agent
+ * @since 2026/10/17 3:27
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InjectionBenchmark {
+
+    @Param({"100"})
+    private int batchSize;
+
+    private File librariesFolder;
+    private List<File> batch;
+    private URLClassLoader libraryClassLoader;
+    private Method loadJarFiles;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        librariesFolder = BenchmarkArtifacts.createTempFolder();
+        byte[] jar = BenchmarkArtifacts.newJar(1024, 1);
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(BenchmarkArtifacts.writeArtifact(librariesFolder, "batch-" + i, "1.0", jar));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkArtifacts.delete(librariesFolder);
+    }
+
+    /**
+     * Loads the library again in a class loader of its own, so that every invocation injects into a class path
+     * that does not contain the batch yet.
+     */
+    @Setup(Level.Invocation)
+    public void setUpLibrary() throws Exception {
+        URL location = ReflectUtil.class.getProtectionDomain().getCodeSource().getLocation();
+        libraryClassLoader = new URLClassLoader(new URL[]{location}, null);
+        Class<?> reflectUtil = Class.forName(ReflectUtil.class.getName(), true, libraryClassLoader);
+        loadJarFiles = reflectUtil.getMethod("loadJarFiles", Collection.class);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDownLibrary() throws IOException {
+        libraryClassLoader.close();
+    }
+
+    @Benchmark
+    public ClassLoader loadJarFiles() throws Exception {
+        loadJarFiles.invoke(null, batch);
+        return libraryClassLoader;
+    }
+
+    @Benchmark
+    public DependencyClassLoader loadJarFilesIsolated() throws IOException {
+        DependencyClassLoader classLoader = new DependencyClassLoader(InjectionBenchmark.class.getClassLoader());
+        classLoader.addJarFiles(batch);
+        classLoader.close();
+        return classLoader;
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.theramu.dependencyloader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DependencyLoader#findDependencyFile(Dependency)} for an artifact with many local versions,
+ * with an exact version, "latest" and a version range.
+ *
+ * @author agent
+ * @since 2026/10/17 3:27
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocalLookupBenchmark {
+
+    private static final String ARTIFACT_ID = "versions";
+
+    @Param({"10", "1000"})
+    private int versionCount;
+
+    private File librariesFolder;
+    private DependencyLoader loader;
+    private String exactNotation;
+    private String latestNotation;
+    private String rangeNotation;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        librariesFolder = BenchmarkArtifacts.createTempFolder();
+        byte[] jar = BenchmarkArtifacts.newJar(1024, 0);
+        for (int i = 0; i < versionCount; i++) {
+            BenchmarkArtifacts.writeArtifact(librariesFolder, ARTIFACT_ID, "1." + i, jar);
+        }
+        exactNotation = BenchmarkArtifacts.getNotation(ARTIFACT_ID, "1." + versionCount / 2);
+        latestNotation = BenchmarkArtifacts.getNotation(ARTIFACT_ID, "latest");
+        rangeNotation = BenchmarkArtifacts.getNotation(ARTIFACT_ID, "[1.0,1." + versionCount / 2 + ")");
+        loader = BenchmarkArtifacts.newLoader(librariesFolder);
+        // 预先建立索引并校验所有文件
+        for (int i = 0; i < versionCount; i++) {
+            find(BenchmarkArtifacts.getNotation(ARTIFACT_ID, "1." + i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkArtifacts.delete(librariesFolder);
+    }
+
+    @Benchmark
+    public File findExact() {
+        return find(exactNotation);
+    }
+
+    @Benchmark
+    public File findLatest() {
+        return find(latestNotation);
+    }
+
+    @Benchmark
+    public File findRange() {
+        return find(rangeNotation);
+    }
+
+    private File find(String notation) {
+        Dependency dependency = new Dependency(notation);
+        loader.findDependencyFile(dependency);
+        if (dependency.getFile() == null) {
+            throw new IllegalStateException("Cannot find " + notation);
+        }
+        return dependency.getFile();
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.theramu.dependencyloader;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An in-process Maven repository serving artifacts over HTTP with a configurable latency and bandwidth,
+ * so that download benchmarks run offline and reproducibly.
+ * <p>
+ * It answers HEAD requests for the repository probe, and GET requests with or without a single byte range.
+ *
+ * @author agent
+ * @since 2026/10/17 3:27
+ */
+final class StandInRepository implements Closeable {
+
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+    private final long latency;
+    private final long bandwidth;
+
+    /**
+     * @param latency   The delay in milliseconds before each response.
+     * @param bandwidth The bandwidth in bytes per second of each response, or 0 for no limit.
+     */
+    StandInRepository(long latency, long bandwidth) throws IOException {
+        this.latency = latency;
+        this.bandwidth = bandwidth;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "StandInRepository");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Publishes the jar and its ".sha1" checksum.
+     */
+    void addArtifact(String artifactId, String version, byte[] jar) {
+        String path = String.format("%s/%s/%s/%s-%s.jar", BenchmarkArtifacts.GROUP_ID.replace(".", "/"), artifactId, version, artifactId, version);
+        files.put(path, jar);
+        files.put(path + ".sha1", BenchmarkArtifacts.sha1(jar).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    String getUrl() {
+        return String.format("http://%s:%d/", server.getAddress().getHostString(), server.getAddress().getPort());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (latency > 0) {
+                Thread.sleep(latency);
+            }
+            byte[] data = files.get(exchange.getRequestURI().getPath().substring(1));
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                exchange.sendResponseHeaders(data == null ? 404 : 200, -1);
+                return;
+            }
+            if (data == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+            int start = 0;
+            int end = data.length - 1;
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            if (range != null && range.startsWith("bytes=")) {
+                String[] bounds = range.substring(6).split("-", -1);
+                start = Integer.parseInt(bounds[0]);
+                if (!bounds[1].isEmpty()) {
+                    end = Math.min(end, Integer.parseInt(bounds[1]));
+                }
+                if (start > end) {
+                    exchange.getResponseHeaders().set("Content-Range", "bytes */" + data.length);
+                    exchange.sendResponseHeaders(416, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().set("Content-Range", String.format("bytes %d-%d/%d", start, end, data.length));
+                exchange.sendResponseHeaders(206, end - start + 1);
+            } else {
+                exchange.sendResponseHeaders(200, data.length);
+            }
+            write(exchange.getResponseBody(), data, start, end + 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void write(OutputStream output, byte[] data, int start, int end) throws IOException, InterruptedException {
+        long startTime = System.nanoTime();
+        long sent = 0;
+        for (int position = start; position < end; position += CHUNK_SIZE) {
+            int length = Math.min(CHUNK_SIZE, end - position);
+            output.write(data, position, length);
+            sent += length;
+            if (bandwidth > 0) {
+                // 按带宽限制发送速度
+                long expected = sent * TimeUnit.SECONDS.toNanos(1) / bandwidth;
+                long ahead = expected - (System.nanoTime() - startTime);
+                if (ahead > 0) {
+                    TimeUnit.NANOSECONDS.sleep(ahead);
+                }
+            }
+        }
+        output.flush();
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.theramu.dependencyloader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DependencyLoader#isValidJarFile(File)} on small and large jars,
+ * both when the manifest already vouches for the jar and when the jar has to be opened and hashed.
+ *
+ * @author agent
+ * @since 2026/10/17 3:27
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VerifyJarBenchmark {
+
+    @Param({"16384", "16777216"})
+    private int jarSize;
+
+    private File librariesFolder;
+    private File jarFile;
+    private DependencyLoader loader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        librariesFolder = BenchmarkArtifacts.createTempFolder();
+        jarFile = BenchmarkArtifacts.writeArtifact(librariesFolder, "verify", "1.0", BenchmarkArtifacts.newJar(jarSize, 0));
+        loader = BenchmarkArtifacts.newLoader(librariesFolder);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkArtifacts.delete(librariesFolder);
+    }
+
+    @Benchmark
+    public boolean isValidJarFileRecorded() {
+        return loader.isValidJarFile(jarFile);
+    }
+
+    @Benchmark
+    public boolean isValidJarFileUnrecorded() {
+        // 移除清单记录，强制重新打开并计算摘要
+        loader.manifest.remove(jarFile);
+        return loader.isValidJarFile(jarFile);
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.theramu.dependencyloader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a warm start: a new loader loading dependencies that are all present and already recorded in the manifest
+ * of a populated libraries folder.
+ *
+ * @author agent
+ * @since 2026/10/17 3:27
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WarmLoadBenchmark {
+
+    @Param({"10", "100"})
+    private int dependencyCount;
+
+    @Param({"65536"})
+    private int jarSize;
+
+    private File librariesFolder;
+    private String[] dependencies;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        librariesFolder = BenchmarkArtifacts.createTempFolder();
+        dependencies = new String[dependencyCount];
+        for (int i = 0; i < dependencyCount; i++) {
+            String artifactId = "warm-" + i;
+            BenchmarkArtifacts.writeArtifact(librariesFolder, artifactId, "1.0", BenchmarkArtifacts.newJar(jarSize, i));
+            dependencies[i] = BenchmarkArtifacts.getNotation(artifactId, "1.0");
+        }
+        // 首次加载会校验所有文件并写入清单
+        if (!BenchmarkArtifacts.newLoader(librariesFolder).loadDependencies(dependencies)) {
+            throw new IllegalStateException("Failed to populate " + librariesFolder);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkArtifacts.delete(librariesFolder);
+    }
+
+    @Benchmark
+    public boolean loadDependencies() {
+        return BenchmarkArtifacts.newLoader(librariesFolder).loadDependencies(dependencies);
+    }
+}
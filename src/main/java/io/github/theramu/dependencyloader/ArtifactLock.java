@@ -0,0 +1,103 @@
+package io.github.theramu.dependencyloader;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An exclusive lock on a file in the libraries folder, held across threads and processes.
+ * <p>
+ * Threads of the same JVM are serialized by an in-memory lock, since a JVM cannot hold two overlapping file locks,
+ * and processes are serialized by a {@link FileLock} on a ".lock" file in the ".locks" folder next to the locked file,
+ * which scans of the libraries folder skip as a hidden folder.
+ * The in-memory lock of a file is dropped once no thread holds or waits for it.
+ * The lock must not be acquired again by a thread that already holds it.
+ *
+ * @author agent
+ * @since 2026/10/17 3:20
+ */
+public class ArtifactLock implements Closeable {
+
+    public static final String LOCK_FOLDER_NAME = ".locks";
+    private static final Map<String, JvmLock> JVM_LOCKS = new ConcurrentHashMap<>();
+
+    private final String key;
+    private final JvmLock jvmLock;
+    private final FileChannel channel;
+    private final FileLock fileLock;
+
+    private ArtifactLock(String key, JvmLock jvmLock, FileChannel channel, FileLock fileLock) {
+        this.key = key;
+        this.jvmLock = jvmLock;
+        this.channel = channel;
+        this.fileLock = fileLock;
+    }
+
+    /**
+     * Blocks until the lock on the file is acquired.
+     */
+    protected static ArtifactLock acquire(@NotNull File file) throws IOException {
+        String key = getKey(file);
+        // 引用计数在 compute 中增减，计数归零时移除，避免锁对象无限增长
+        JvmLock jvmLock = JVM_LOCKS.compute(key, (k, lock) -> {
+            lock = lock == null ? new JvmLock() : lock;
+            lock.references++;
+            return lock;
+        });
+        jvmLock.lock();
+        try {
+            File target = new File(key);
+            File lockFolder = new File(target.getParentFile(), LOCK_FOLDER_NAME);
+            lockFolder.mkdirs();
+            FileChannel channel = FileChannel.open(new File(lockFolder, target.getName() + ".lock").toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                return new ArtifactLock(key, jvmLock, channel, channel.lock());
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        } catch (IOException | RuntimeException e) {
+            release(key, jvmLock);
+            throw e;
+        }
+    }
+
+    private static void release(String key, JvmLock jvmLock) {
+        jvmLock.unlock();
+        JVM_LOCKS.computeIfPresent(key, (k, lock) -> --lock.references == 0 ? null : lock);
+    }
+
+    /**
+     * Returns the key identifying the file within this JVM, which is the same for every path pointing to it.
+     */
+    protected static String getKey(@NotNull File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            return file.getAbsolutePath();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            fileLock.release();
+            channel.close();
+        } finally {
+            release(key, jvmLock);
+        }
+    }
+
+    private static class JvmLock extends ReentrantLock {
+        // 持有或等待该锁的线程数，仅在 JVM_LOCKS 的 compute 中修改
+        private int references;
+    }
+}
@@ -0,0 +1,121 @@
+package io.github.theramu.dependencyloader;
+
+import io.github.theramu.dependencyloader.util.ExceptionUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * A folder shared by several libraries folders that stores every jar once, under its SHA-1.
+ * <p>
+ * Jars are laid out as {@code ab/abcdef....jar} and are linked into the libraries folders:
+ * as hard links when the store is on the same file system, otherwise as symbolic links, and as copies as a last resort.
+ * Files are only ever replaced by atomic moves, never modified in place, so a hard-linked jar cannot be changed through the store.
+ *
+ * @author agent
+ * @since 2026/10/17 3:33
+ */
+public class ContentStore {
+
+    private final Logger logger;
+    private final File folder;
+
+    protected ContentStore(Logger logger, File folder) {
+        this.logger = logger;
+        this.folder = folder;
+    }
+
+    protected File getFolder() {
+        return folder;
+    }
+
+    protected File getFile(@NotNull String sha1) {
+        return new File(folder, sha1.substring(0, 2) + File.separator + sha1 + ".jar");
+    }
+
+    protected boolean contains(@NotNull String sha1) {
+        return getFile(sha1).isFile();
+    }
+
+    /**
+     * Links the stored jar with the SHA-1 to the target path, replacing any file there.
+     * The jar is not hashed again: only verified jars are added, under their SHA-1, and stored files are never modified.
+     *
+     * @return false if the store does not have the jar.
+     */
+    protected boolean link(@NotNull String sha1, @NotNull File target) {
+        File stored = getFile(sha1);
+        if (!stored.isFile()) {
+            return false;
+        }
+        target.getParentFile().mkdirs();
+        // 先在唯一的临时路径创建链接，再原子替换目标文件，多个进程同时链接时互不干扰
+        Path temp = new File(target.getPath() + "." + UUID.randomUUID() + ".link").toPath();
+        try {
+            createLink(temp, stored.toPath());
+            move(temp, target.toPath());
+            return true;
+        } catch (IOException e) {
+            logger.warning(String.format("Failed to link %s to %s\n%s", stored, target, ExceptionUtil.stackTraceToString(e)));
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Adds the verified jar to the store, as a hard link to it when possible.
+     */
+    protected void add(@NotNull File file, @NotNull String sha1) {
+        File stored = getFile(sha1);
+        if (stored.isFile()) {
+            return;
+        }
+        stored.getParentFile().mkdirs();
+        try {
+            try {
+                Files.createLink(stored.toPath(), file.toPath());
+            } catch (FileAlreadyExistsException e) {
+                // 其他进程已存入相同的文件
+            } catch (IOException | UnsupportedOperationException e) {
+                Path temp = new File(stored.getPath() + "." + UUID.randomUUID() + ".tmp").toPath();
+                Files.copy(file.toPath(), temp, StandardCopyOption.REPLACE_EXISTING);
+                move(temp, stored.toPath());
+            }
+        } catch (IOException e) {
+            logger.warning(String.format("Failed to add %s to the shared store %s\n%s", file.getName(), folder, ExceptionUtil.stackTraceToString(e)));
+        }
+    }
+
+    private static void createLink(Path link, Path stored) throws IOException {
+        try {
+            Files.createLink(link, stored);
+            return;
+        } catch (IOException | UnsupportedOperationException ignored) {
+        }
+        try {
+            Files.createSymbolicLink(link, stored.toAbsolutePath());
+            return;
+        } catch (IOException | UnsupportedOperationException ignored) {
+        }
+        Files.copy(stored, link, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
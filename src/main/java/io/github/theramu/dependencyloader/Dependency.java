@@ -1,9 +1,12 @@
 package io.github.theramu.dependencyloader;
 
+import io.github.theramu.dependencyloader.version.VersionRange;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.io.File;
+import java.util.Set;
 
 /**
  * @author TheRamU
@@ -18,6 +21,55 @@ public class Dependency {
     @Setter
     private File file;
 
+    /**
+     * Where the file was found, or null if it was not found.
+     */
+    @Setter(AccessLevel.PROTECTED)
+    private Source source;
+
+    /**
+     * The repository the file was downloaded or copied from, or null if it was not downloaded by this load.
+     */
+    @Setter(AccessLevel.PROTECTED)
+    private String repository;
+
+    /**
+     * The number of bytes downloaded for this dependency.
+     */
+    @Setter(AccessLevel.PROTECTED)
+    private long downloadedBytes;
+
+    /**
+     * The time in milliseconds spent looking for the file in the libraries folder.
+     */
+    @Setter(AccessLevel.PROTECTED)
+    private long findTime;
+
+    /**
+     * The time in milliseconds spent downloading the file, including version resolution.
+     */
+    @Setter(AccessLevel.PROTECTED)
+    private long downloadTime;
+
+    /**
+     * The time in milliseconds spent injecting the batch of files containing this file into the class loader.
+     */
+    @Setter(AccessLevel.PROTECTED)
+    private long loadTime;
+
+    /**
+     * Whether the file has been injected into the class loader.
+     */
+    @Setter(AccessLevel.PROTECTED)
+    private boolean loaded;
+
+    /**
+     * The requested dependencies ({@code groupId:artifactId}) whose dependency trees contain this dependency,
+     * or null if it was not resolved transitively.
+     */
+    @Setter(AccessLevel.PROTECTED)
+    private Set<String> roots;
+
     protected Dependency(String dependencyNotation) {
         String[] ary = dependencyNotation.split(":");
         if (ary.length != 3) {
@@ -28,8 +80,40 @@ public class Dependency {
         version = ary[2];
     }
 
+    protected Dependency(String groupId, String artifactId, String version) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+    }
+
+    /**
+     * Checks whether the version is "latest", "release" or a version range, which must be resolved against a repository.
+     */
+    public boolean isDynamicVersion() {
+        return version.equals("latest") || version.equals("release") || VersionRange.isRange(version);
+    }
+
     @Override
     public String toString() {
         return groupId + ":" + artifactId + ":" + version;
     }
+
+    public enum Source {
+        /**
+         * The file was already in the libraries folder.
+         */
+        LOCAL,
+        /**
+         * The file was downloaded from a repository.
+         */
+        DOWNLOADED,
+        /**
+         * The file was copied from a local repository, i.e. the local Maven repository or a {@code file://} repository.
+         */
+        LOCAL_REPOSITORY,
+        /**
+         * The file was linked from the shared store, see {@link DependencyLoader#getSharedStore()}.
+         */
+        SHARED_STORE
+    }
 }
@@ -0,0 +1,105 @@
+package io.github.theramu.dependencyloader;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The child class loader dependencies are added to when {@link DependencyLoader#isIsolated()} is enabled,
+ * leaving the class loader of the application untouched.
+ *
+ * @author agent
+ * @since 2026/10/17 3:23
+ */
+public class DependencyClassLoader extends URLClassLoader {
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    private final Set<String> urlSet = ConcurrentHashMap.newKeySet();
+    private volatile LazyDependencies lazyDependencies;
+
+    protected DependencyClassLoader(ClassLoader parent) {
+        super(new URL[0], parent);
+    }
+
+    protected void setLazyDependencies(LazyDependencies lazyDependencies) {
+        this.lazyDependencies = lazyDependencies;
+    }
+
+    /**
+     * Loads the class, first loading the lazy dependency providing it if neither the parent nor this loader has it.
+     * The lazy dependency is loaded after the lookup has failed, so the class loading lock of the class is not held meanwhile.
+     */
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        try {
+            return super.loadClass(name, resolve);
+        } catch (ClassNotFoundException e) {
+            LazyDependencies lazy = lazyDependencies;
+            if (lazy == null || !lazy.load(name)) {
+                throw e;
+            }
+            return super.loadClass(name, resolve);
+        }
+    }
+
+    /**
+     * Finds the resource, first loading the lazy dependency providing it if neither the parent nor this loader has it.
+     */
+    @Override
+    public URL getResource(String name) {
+        URL url = super.getResource(name);
+        if (url != null) {
+            return url;
+        }
+        LazyDependencies lazy = lazyDependencies;
+        if (lazy == null || !lazy.loadResource(name)) {
+            return null;
+        }
+        return super.getResource(name);
+    }
+
+    /**
+     * Finds all the resources with the name, first loading the lazy dependencies providing it,
+     * so that e.g. a {@link java.util.ServiceLoader} finds the providers in lazy dependencies.
+     */
+    @Override
+    public Enumeration<URL> getResources(String name) throws IOException {
+        LazyDependencies lazy = lazyDependencies;
+        if (lazy != null) {
+            // 其他 jar 中也可能存在同名资源，因此无论是否已找到都需先加载
+            lazy.loadResource(name);
+        }
+        return super.getResources(name);
+    }
+
+    /**
+     * Appends the jars, in order, to the class path of this loader. Jars already on it are skipped.
+     */
+    protected void addJarFiles(Collection<File> files) throws IOException {
+        for (File file : files) {
+            addJarFile(file);
+        }
+    }
+
+    /**
+     * Appends the jar to the class path of this loader.
+     *
+     * @return false if the jar is already on it.
+     */
+    protected boolean addJarFile(File file) throws IOException {
+        URL url = file.toURI().toURL();
+        if (!urlSet.add(url.toString())) {
+            return false;
+        }
+        addURL(url);
+        return true;
+    }
+}
@@ -1,25 +1,53 @@
 package io.github.theramu.dependencyloader;
 
+import io.github.theramu.dependencyloader.transport.TransportResponse;
+import io.github.theramu.dependencyloader.util.DigestUtil;
 import io.github.theramu.dependencyloader.util.ExceptionUtil;
 import io.github.theramu.dependencyloader.util.NetworkUtil;
+import io.github.theramu.dependencyloader.version.ComparableVersion;
+import io.github.theramu.dependencyloader.version.VersionRange;
 import org.jetbrains.annotations.NotNull;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
-import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
-import java.net.URLConnection;
+import java.net.URI;
 import java.net.UnknownHostException;
-import java.text.DecimalFormat;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
 import java.util.logging.Logger;
 
 /**
@@ -32,25 +60,240 @@ public class DependencyDownloader {
             "https://repo.huaweicloud.com/repository/maven/",
             "https://maven.aliyun.com/nexus/content/groups/public/"
     };
+    private static final String PART_SUFFIX = ".part";
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_HEDGED_ATTEMPTS = 2;
+    private static final AtomicInteger TRANSFER_THREAD_COUNTER = new AtomicInteger();
+    private static final Map<String, CompletableFuture<Integer>> IN_FLIGHT = new ConcurrentHashMap<>();
+    private static final String[] CHECKSUM_ALGORITHMS = new String[]{"SHA-1", "SHA-256"};
+    private final DependencyLoader dependencyLoader;
     private final Logger logger;
     private final File librariesFolder;
+    private final LibraryManifest manifest;
+    private final MetadataCache metadataCache;
+    private final LocalRepositoryIndex repositoryIndex;
+    private final RepositoryStats repositoryStats;
+    private final Map<List<String>, List<String>> rankedRepositories = new ConcurrentHashMap<>();
+    private DownloadScheduler scheduler;
+    private final ExecutorService transferExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "DependencyLoader-Transfer-" + TRANSFER_THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
 
     protected DependencyDownloader(DependencyLoader dependencyLoader) {
+        this.dependencyLoader = dependencyLoader;
         this.logger = dependencyLoader.logger;
         this.librariesFolder = dependencyLoader.librariesFolder;
+        this.manifest = dependencyLoader.manifest;
+        this.metadataCache = dependencyLoader.metadataCache;
+        this.repositoryIndex = dependencyLoader.repositoryIndex;
+        this.repositoryStats = dependencyLoader.repositoryStats;
     }
 
     protected void downloadDependencies(@NotNull List<Dependency> dependencies, String[] repositories) {
+        List<File> localRepositories = getLocalRepositories(repositories);
+        DownloadScheduler scheduler = getScheduler();
+        scheduler.runAll(dependencies, dependency -> {
+            long startTime = System.currentTimeMillis();
+            // 本地仓库中已有的依赖无需探测远程仓库
+            if (!copyFromLocalRepository(localRepositories, repositories, dependency)) {
+                downloadDependency(scheduler, repositoryStats.order(getRemoteRepositoryList(repositories)), dependency);
+            }
+            dependency.setDownloadTime(System.currentTimeMillis() - startTime);
+            if (dependency.getFile() != null && dependency.getSource() == null) {
+                dependency.setSource(Dependency.Source.DOWNLOADED);
+            }
+        });
+    }
+
+    /**
+     * Returns the repositories to read POMs and metadata from: the local repositories first, as {@code file:} urls,
+     * followed by the remote repositories ordered by their measured performance.
+     */
+    protected List<String> getRepositoryList(String[] repositories) {
+        List<String> repositoryList = new ArrayList<>();
+        for (File localRepository : getLocalRepositories(repositories)) {
+            repositoryList.add(localRepository.toURI().toString());
+        }
+        repositoryList.addAll(repositoryStats.order(getRemoteRepositoryList(repositories)));
+        return repositoryList;
+    }
+
+    /**
+     * Returns the remote repositories ordered by latency, falling back to the central repositories if none are given.
+     * {@code file://} repositories are left out, see {@link #getLocalRepositories(String[])}.
+     */
+    protected List<String> getRemoteRepositoryList(String[] repositories) {
         if (repositories == null || repositories.length == 0) {
             repositories = CENTRAL_REPOSITORIES;
         }
-        List<String> repositoryList = NetworkUtil.sortUrlsByLatency(repositories);
-        for (Dependency dependency : dependencies) {
-            downloadDependency(repositoryList, dependency);
+        List<String> remoteRepositories = new ArrayList<>();
+        for (String repository : repositories) {
+            if (!isFileRepository(repository)) {
+                remoteRepositories.add(repository);
+            }
+        }
+        // 同一个加载器内只对相同的仓库列表探测一次
+        return rankedRepositories.computeIfAbsent(
+                remoteRepositories,
+                key -> {
+                    if (key.isEmpty()) {
+                        return key;
+                    }
+                    long startTime = System.nanoTime();
+                    List<String> ranked = NetworkUtil.sortUrlsByLatency(dependencyLoader.getTransport(), key.toArray(new String[0]), dependencyLoader.getProbeTimeout());
+                    dependencyLoader.fireEvent(DependencyEvent.Type.PROBE, null, null, ranked.isEmpty() ? null : ranked.get(0), 0, 0, -1, System.nanoTime() - startTime);
+                    return ranked;
+                }
+        );
+    }
+
+    /**
+     * Returns the local repositories to try before the remote ones: the {@code file://} repositories in the given order,
+     * followed by the local Maven repository if {@link DependencyLoader#isMavenLocal()} is enabled.
+     */
+    protected List<File> getLocalRepositories(String[] repositories) {
+        List<File> localRepositories = new ArrayList<>();
+        if (repositories != null) {
+            for (String repository : repositories) {
+                if (!isFileRepository(repository)) {
+                    continue;
+                }
+                try {
+                    localRepositories.add(new File(URI.create(repository)));
+                } catch (IllegalArgumentException e) {
+                    logger.warning(String.format("Invalid repository %s: %s", repository, e.getMessage()));
+                }
+            }
+        }
+        if (dependencyLoader.isMavenLocal()) {
+            String path = System.getProperty("maven.repo.local");
+            localRepositories.add(path != null && !path.isEmpty()
+                    ? new File(path)
+                    : new File(System.getProperty("user.home"), ".m2" + File.separator + "repository"));
+        }
+        return localRepositories;
+    }
+
+    private static boolean isFileRepository(String repository) {
+        return repository.regionMatches(true, 0, "file:", 0, 5);
+    }
+
+    /**
+     * Gets a file of a repository, reading it from disk if the url is a {@code file:} url.
+     * A missing local file is answered with status 404.
+     */
+    protected TransportResponse getRepositoryFile(String url) throws IOException {
+        if (!isFileRepository(url)) {
+            return dependencyLoader.getTransport().get(url);
+        }
+        Path path = Paths.get(URI.create(url));
+        if (!Files.isRegularFile(path)) {
+            return new TransportResponse(404, 0, Collections.emptyMap(), null);
         }
+        return new TransportResponse(200, Files.size(path), Collections.emptyMap(), Files.newInputStream(path));
     }
 
-    private void downloadDependency(List<String> repositoryList, Dependency dependency) {
+    /**
+     * Copies the jar of the dependency from the first local repository that has it into the libraries folder,
+     * verifying it against its checksum file when there is one, or checking that it is a valid jar otherwise.
+     * Dynamic versions are resolved against the remote repositories first, so that a stale local repository does not pin an old version,
+     * and against the local ones only if none of them could resolve it.
+     *
+     * @return false if no local repository has the jar.
+     */
+    private boolean copyFromLocalRepository(List<File> localRepositories, String[] repositories, Dependency dependency) {
+        if (localRepositories.isEmpty()) {
+            return false;
+        }
+        String groupId = dependency.getGroupId();
+        String artifactId = dependency.getArtifactId();
+        String version = dependency.getVersion();
+        if (dependency.isDynamicVersion()) {
+            version = resolveVersion(getRepositoryList(repositories), dependency);
+            if (version == null) {
+                return false;
+            }
+        }
+
+        File file = getLocalFile(groupId, artifactId, version);
+        for (File localRepository : localRepositories) {
+            File source = new File(localRepository, getRepositoryPath(groupId, artifactId, version));
+            if (!source.isFile()) {
+                continue;
+            }
+            String repository = localRepository.toURI().toString();
+            String filePath = file.getPath();
+            DownloadAttempt attempt = new DownloadAttempt(dependency, repository, new File(filePath + PART_SUFFIX));
+            int statusCode = downloadOnce(file, () -> copyFile(source, filePath, attempt));
+            if (statusCode == 1) {
+                repositoryIndex.add(groupId, artifactId, version, file);
+                dependency.setFile(file);
+                dependency.setRepository(repository);
+                if (dependency.getSource() == null) {
+                    dependency.setSource(Dependency.Source.LOCAL_REPOSITORY);
+                }
+                return true;
+            }
+            logFailure(statusCode, attempt);
+        }
+        return false;
+    }
+
+    private int copyFile(File source, String filePath, DownloadAttempt attempt) {
+        Checksum expected = readChecksum(source);
+        // 与下载共用写入流程，在复制的同时计算并校验摘要
+        try (InputStream input = Files.newInputStream(source.toPath())) {
+            return writeToLocal(input, 0, source.length(), filePath, expected, attempt);
+        } catch (IOException e) {
+            logger.severe(String.format("Failed to copy %s!\n%s", source, ExceptionUtil.stackTraceToString(e)));
+            return 5;
+        }
+    }
+
+    /**
+     * Returns the scheduler shared by all loads of the loader, replacing it if the executor or the limits have been changed since.
+     */
+    protected synchronized DownloadScheduler getScheduler() {
+        ExecutorService executorService = dependencyLoader.getExecutorService();
+        int maxConcurrent = dependencyLoader.getMaxConcurrentDownloads();
+        int maxConcurrentPerHost = dependencyLoader.getMaxConcurrentDownloadsPerHost();
+        if (scheduler == null || !scheduler.isConfiguredWith(executorService, maxConcurrent, maxConcurrentPerHost)) {
+            if (scheduler != null) {
+                scheduler.shutdown();
+            }
+            scheduler = new DownloadScheduler(logger, executorService, maxConcurrent, maxConcurrentPerHost);
+        }
+        return scheduler;
+    }
+
+    /**
+     * Resolves "latest", "release" or a version range to a concrete version number using the first repository that knows it.
+     * Remote repositories are asked before local ones, which are resolved by the version folders holding a jar.
+     *
+     * @return the version number, or null if no repository could resolve it.
+     */
+    protected String resolveVersion(List<String> repositoryList, Dependency dependency) {
+        // 本地仓库中的最高版本未必是最新版本，仅在远程仓库都无法解析时使用
+        List<String> ordered = new ArrayList<>();
+        repositoryList.stream().filter(repository -> !isFileRepository(repository)).forEach(ordered::add);
+        repositoryList.stream().filter(DependencyDownloader::isFileRepository).forEach(ordered::add);
+        for (String repository : ordered) {
+            repository = repository.endsWith("/") ? repository : repository + "/";
+            String version = getVersioning(repository, dependency);
+            if (version != null) {
+                return version;
+            }
+        }
+        return null;
+    }
+
+    private void downloadDependency(DownloadScheduler scheduler, List<String> repositoryList, Dependency dependency) {
+        if (dependencyLoader.getHedgeDelay() > 0 && repositoryList.size() > 1) {
+            downloadDependencyHedged(scheduler, repositoryList, dependency);
+            return;
+        }
         String groupId = dependency.getGroupId();
         String artifactId = dependency.getArtifactId();
         String version = dependency.getVersion();
@@ -60,7 +303,7 @@ public class DependencyDownloader {
             repository = repository.endsWith("/") ? repository : repository + "/";
 
             assert version != null;
-            if (version.equals("latest") || version.equals("release")) {
+            if (dependency.isDynamicVersion()) {
                 version = getVersioning(repository, dependency);
                 if (version == null) {
                     logger.severe(String.format("Failed to get the latest version number of the %s !", dependency));
@@ -68,161 +311,738 @@ public class DependencyDownloader {
                 }
             }
 
-            String fileName = String.format("%s-%s.jar", artifactId, version);
-            file = new File(librariesFolder, String.join(File.separator, groupId.replace(".", File.separator), artifactId, version, fileName));
-            String urlStr = String.format("%s%s/%s/%s/%s", repository, groupId.replace(".", "/"), artifactId, version, fileName);
-            int statusCode = downloadFile(urlStr, file.getPath());
+            if (repositoryStats.isNotFound(repository, groupId, artifactId, version)) {
+                continue;
+            }
+
+            file = getLocalFile(groupId, artifactId, version);
+            String urlStr = getRemoteUrl(repository, groupId, artifactId, version);
+            String filePath = file.getPath();
+            DownloadAttempt attempt = new DownloadAttempt(dependency, repository, new File(filePath + PART_SUFFIX));
+            int statusCode = downloadOnce(file, () -> scheduler.withHostPermit(urlStr, () -> downloadFile(scheduler, urlStr, filePath, attempt)));
+            dependency.setDownloadedBytes(dependency.getDownloadedBytes() + attempt.getTransferred());
+            repositoryStats.record(repository, statusCode, groupId, artifactId, version, attempt.getTransferred(), attempt.getElapsedTime());
             if (statusCode == 1) {
+                repositoryIndex.add(groupId, artifactId, version, file);
+                dependency.setRepository(repository);
                 break;
             }
             file = null;
+            logFailure(statusCode, attempt);
+        }
+        dependency.setFile(file);
+    }
 
-            if (statusCode == 2) {
-                logger.warning(String.format("Cannot find dependency %s in repository %s", dependency, repository));
-            } else {
-                logger.warning(String.format("Failed to download %s from %s", fileName, repository));
+    /**
+     * Downloads the dependency from the first repository, and starts the same download from the next repository
+     * whenever the running ones have not delivered their first byte or are below the throughput floor after the hedge delay.
+     * The first attempt to complete wins, and the others are aborted and awaited before the artifact lock is released.
+     * Hedged attempts write to their own temporary files, which are deleted once they end.
+     */
+    private void downloadDependencyHedged(DownloadScheduler scheduler, List<String> repositoryList, Dependency dependency) {
+        String groupId = dependency.getGroupId();
+        String artifactId = dependency.getArtifactId();
+        String version = dependency.isDynamicVersion() ? resolveVersion(repositoryList, dependency) : dependency.getVersion();
+        if (version == null) {
+            logger.severe(String.format("Failed to get the latest version number of the %s !", dependency));
+            dependency.setFile(null);
+            return;
+        }
+
+        // 跳过近期已确认没有该文件的仓库
+        List<String> candidates = new ArrayList<>();
+        for (String repository : repositoryList) {
+            if (!repositoryStats.isNotFound(repository, groupId, artifactId, version)) {
+                candidates.add(repository);
             }
         }
-        dependency.setFile(file);
+        File file = getLocalFile(groupId, artifactId, version);
+        int statusCode = downloadOnce(file, () -> raceDownload(scheduler, candidates, dependency, version, file));
+        if (statusCode == 1) {
+            repositoryIndex.add(groupId, artifactId, version, file);
+            dependency.setFile(file);
+        } else {
+            dependency.setFile(null);
+        }
+    }
+
+    private int raceDownload(DownloadScheduler scheduler, List<String> repositoryList, Dependency dependency, String version, File file) {
+        String filePath = file.getPath();
+        AtomicBoolean finished = new AtomicBoolean();
+        CompletionService<Integer> completionService = new ExecutorCompletionService<>(transferExecutor);
+        Map<Future<Integer>, DownloadAttempt> running = new HashMap<>();
+        List<DownloadAttempt> attempts = new ArrayList<>();
+        int nextIndex = 0;
+        // 所有仓库都失败时返回最有意义的状态，仅在全部未找到时返回 2
+        int failure = 2;
+        try {
+            while (true) {
+                if (running.isEmpty() || isHedgeNeeded(running.values())) {
+                    if (nextIndex >= repositoryList.size()) {
+                        if (running.isEmpty()) {
+                            return failure;
+                        }
+                    } else {
+                        String repository = repositoryList.get(nextIndex);
+                        String repositoryUrl = repository.endsWith("/") ? repository : repository + "/";
+                        String urlStr = getRemoteUrl(repositoryUrl, dependency.getGroupId(), dependency.getArtifactId(), version);
+                        // 首个仓库使用可续传的临时文件，对冲的请求使用各自的临时文件并在结束后删除
+                        boolean hedged = nextIndex > 0;
+                        File partFile = new File(filePath + PART_SUFFIX + (hedged ? "." + nextIndex : ""));
+                        if (hedged) {
+                            deletePartFile(partFile);
+                        }
+                        DownloadAttempt attempt = new DownloadAttempt(dependency, repositoryUrl, partFile, finished);
+                        attempts.add(attempt);
+                        running.put(completionService.submit(() -> {
+                            try {
+                                return scheduler.withHostPermit(urlStr, () -> downloadFile(scheduler, urlStr, filePath, attempt));
+                            } finally {
+                                if (hedged) {
+                                    deletePartFile(partFile);
+                                }
+                            }
+                        }), attempt);
+                        nextIndex++;
+                    }
+                }
+                Future<Integer> future = completionService.poll(dependencyLoader.getHedgeDelay(), TimeUnit.MILLISECONDS);
+                if (future == null) {
+                    continue;
+                }
+                DownloadAttempt attempt = running.remove(future);
+                int statusCode = getStatusCode(future);
+                repositoryStats.record(attempt.getRepository(), statusCode, dependency.getGroupId(), dependency.getArtifactId(), version, attempt.getTransferred(), attempt.getElapsedTime());
+                if (statusCode == 1) {
+                    dependency.setRepository(attempt.getRepository());
+                    return 1;
+                }
+                if (statusCode != 2) {
+                    failure = statusCode;
+                }
+                logFailure(statusCode, attempt);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 5;
+        } finally {
+            running.values().forEach(DownloadAttempt::cancel);
+            // 等待被取消的请求退出，确保释放文件锁后不再有请求写入临时文件
+            awaitAll(completionService, running.size());
+            dependency.setDownloadedBytes(attempts.stream().mapToLong(DownloadAttempt::getTransferred).sum());
+        }
+    }
+
+    private static void awaitAll(CompletionService<Integer> completionService, int count) {
+        boolean interrupted = false;
+        for (int i = 0; i < count; ) {
+            try {
+                completionService.take();
+                i++;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
     }
 
-    private int downloadFile(String urlStr, String filePath) {
-        try (InputStream input = new URL(urlStr).openStream()) {
-            logger.info(String.format("Downloading %s ...", new File(filePath).getName()));
-            URLConnection connection = new URL(urlStr).openConnection();
-            connection.setConnectTimeout(100000);
-            connection.setReadTimeout(100000);
-            int length = connection.getContentLength();
-            return writeToLocal(input, length, filePath);
-        } catch (FileNotFoundException e) {
-            return 2;
-        } catch (UnknownHostException e) {
-            logger.severe(String.format("Failed to connect to the server!\n%s", ExceptionUtil.stackTraceToString(e)));
-            return 3;
+    private static void deletePartFile(File partFile) {
+        partFile.delete();
+        getValidatorFile(partFile).delete();
+    }
+
+    /**
+     * Runs the download of the file at most once at a time across this JVM and other processes sharing the libraries folder.
+     * Callers in this JVM that ask for a file already being downloaded wait for that download and share its status code,
+     * and a file completed by another process while waiting for its lock is used without downloading it again.
+     */
+    private int downloadOnce(File file, IntSupplier download) {
+        String key = ArtifactLock.getKey(file);
+        CompletableFuture<Integer> flight = new CompletableFuture<>();
+        CompletableFuture<Integer> existing = IN_FLIGHT.putIfAbsent(key, flight);
+        if (existing != null) {
+            return existing.join();
+        }
+        int statusCode = 5;
+        try (ArtifactLock ignored = ArtifactLock.acquire(file)) {
+            statusCode = dependencyLoader.verifyJarFile(file) ? 1 : download.getAsInt();
         } catch (IOException e) {
-            logger.severe(String.format("Failed to download %s!\n%s", urlStr, ExceptionUtil.stackTraceToString(e)));
+            logger.severe(String.format("Failed to lock %s\n%s", file, ExceptionUtil.stackTraceToString(e)));
+        } finally {
+            IN_FLIGHT.remove(key, flight);
+            flight.complete(statusCode);
+        }
+        return statusCode;
+    }
+
+    private boolean isHedgeNeeded(Collection<DownloadAttempt> attempts) {
+        if (attempts.size() >= MAX_HEDGED_ATTEMPTS) {
+            return false;
+        }
+        long minThroughput = dependencyLoader.getHedgeMinThroughput();
+        return attempts.stream().allMatch(attempt -> attempt.isStalled(minThroughput));
+    }
+
+    private static int getStatusCode(Future<Integer> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
             return 5;
         }
     }
 
-    private int writeToLocal(InputStream input, int length, String filePath) {
+    protected File getLocalFile(String groupId, String artifactId, String version) {
+        String fileName = String.format("%s-%s.jar", artifactId, version);
+        return new File(librariesFolder, String.join(File.separator, groupId.replace(".", File.separator), artifactId, version, fileName));
+    }
+
+    private static String getRemoteUrl(String repository, String groupId, String artifactId, String version) {
+        return repository + getRepositoryPath(groupId, artifactId, version);
+    }
+
+    private static String getRepositoryPath(String groupId, String artifactId, String version) {
+        return String.format("%s/%s/%s/%s-%s.jar", groupId.replace(".", "/"), artifactId, version, artifactId, version);
+    }
+
+    private void logFailure(int statusCode, DownloadAttempt attempt) {
+        Dependency dependency = attempt.getDependency();
+        String repository = attempt.getRepository();
+        dependencyLoader.fireEvent(DependencyEvent.Type.FAILURE, dependency, attempt.getPartFile().getName(), repository, attempt.getTransferred(), 0, -1, attempt.getElapsedTime());
+        if (statusCode == 2) {
+            logger.warning(String.format("Cannot find dependency %s in repository %s", dependency, repository));
+        } else if (statusCode == 6) {
+            logger.warning(String.format("Downloaded %s from %s failed verification", dependency, repository));
+        } else if (statusCode != 7) {
+            logger.warning(String.format("Failed to download %s from %s", dependency, repository));
+        }
+    }
+
+    private int downloadFile(DownloadScheduler scheduler, String urlStr, String filePath, DownloadAttempt attempt) {
+        // 等待主机许可期间已被取消的请求无需发起
+        if (attempt.isCancelled()) {
+            return 7;
+        }
+        Checksum expected = fetchChecksum(urlStr);
+        // 共享存储中已有相同摘要的文件时无需下载
+        ContentStore store = dependencyLoader.getContentStore();
+        if (store != null && expected != null && expected.algorithm.equals("SHA-1") && store.contains(expected.value)
+                && dependencyLoader.linkFromStore(expected.value, new File(filePath))) {
+            // 竞速下载中链接的内容相同，只需确认由哪个尝试完成
+            if (!attempt.claim()) {
+                return 7;
+            }
+            attempt.getDependency().setSource(Dependency.Source.SHARED_STORE);
+            return 1;
+        }
+        File partFile = attempt.getPartFile();
+        File validatorFile = getValidatorFile(partFile);
+        // 续传的范围失效时只重试一次完整下载，并沿用已获取的摘要
+        while (true) {
+            long offset = partFile.isFile() ? partFile.length() : 0;
+            String validator = offset > 0 ? readValidator(validatorFile) : null;
+            if (offset > 0 && validator == null) {
+                // 无法确认远程文件是否已变化，残留文件不能续传
+                partFile.delete();
+                offset = 0;
+            }
+            // 从上次中断的位置继续下载，远程文件已变化时服务器会返回完整文件
+            try (TransportResponse response = offset > 0 ? dependencyLoader.getTransport().getRange(urlStr, offset, -1, validator) : dependencyLoader.getTransport().get(urlStr);
+                 Closeable ignored = attempt.track(response)) {
+                int statusCode = response.getStatusCode();
+                if (statusCode == 404) {
+                    return 2;
+                }
+                if (statusCode == 416) {
+                    if (offset == 0) {
+                        logger.severe(String.format("Failed to download %s! Server responded with %d", urlStr, statusCode));
+                        return 5;
+                    }
+                    // 服务器不接受该范围，说明残留文件已失效，删除后重新完整下载
+                    partFile.delete();
+                    continue;
+                }
+                if (!response.isSuccessful()) {
+                    logger.severe(String.format("Failed to download %s! Server responded with %d", urlStr, statusCode));
+                    return 5;
+                }
+                if (statusCode != 206) {
+                    offset = 0;
+                } else if (!String.valueOf(response.getHeader("Content-Range")).startsWith("bytes " + offset + "-")) {
+                    logger.severe(String.format("Failed to download %s! Server responded with range %s", urlStr, response.getHeader("Content-Range")));
+                    partFile.delete();
+                    return 5;
+                }
+                long contentLength = response.getContentLength();
+                long length = contentLength < 0 ? -1 : offset + contentLength;
+                if (offset == 0 && isSegmentable(response)) {
+                    // 每个额外的分段占用一个主机许可，许可不足时减少分段数
+                    int extraPermits = scheduler.tryAcquireHostPermits(urlStr, dependencyLoader.getDownloadSegments() - 1);
+                    if (extraPermits > 0) {
+                        try {
+                            return downloadSegmented(response, urlStr, filePath, contentLength, 1 + extraPermits, expected, attempt);
+                        } finally {
+                            scheduler.releaseHostPermits(urlStr, extraPermits);
+                        }
+                    }
+                }
+                if (offset == 0) {
+                    writeValidator(validatorFile, getValidator(response));
+                }
+                dependencyLoader.fireEvent(DependencyEvent.Type.DOWNLOAD_START, attempt.getDependency(), new File(filePath).getName(), attempt.getRepository(), offset, offset, length, 0);
+                return writeToLocal(response.getBody(), offset, length, filePath, expected, attempt);
+            } catch (FileNotFoundException e) {
+                return 2;
+            } catch (UnknownHostException e) {
+                logger.severe(String.format("Failed to connect to the server!\n%s", ExceptionUtil.stackTraceToString(e)));
+                return 3;
+            } catch (IOException e) {
+                if (attempt.isCancelled()) {
+                    return 7;
+                }
+                logger.severe(String.format("Failed to download %s!\n%s", urlStr, ExceptionUtil.stackTraceToString(e)));
+                return 5;
+            }
+        }
+    }
+
+    /**
+     * Writes the stream to a temporary ".part" file starting at the given offset,
+     * verifies it and then atomically moves it to the final path.
+     * An interrupted transfer keeps the ".part" file so that the next attempt can resume it,
+     * while a cancelled attempt discards it.
+     */
+    private int writeToLocal(InputStream input, long offset, long length, String filePath, Checksum expected, DownloadAttempt attempt) {
         File file = new File(filePath);
+        File partFile = attempt.getPartFile();
         file.getParentFile().mkdirs();
 
-        try (FileOutputStream output = new FileOutputStream(filePath)) {
-            byte[] buffer = new byte[1024];
-            int bytesRead, totalBytesRead = 0;
-            int tempBytesRead = 0;
+        // 在写入的同时计算摘要，避免下载后再次读取文件
+        MessageDigest sha1Digest = DigestUtil.newDigest("SHA-1");
+        MessageDigest expectedDigest = expected == null || expected.algorithm.equals("SHA-1") ? null : DigestUtil.newDigest(expected.algorithm);
+        try (FileChannel channel = FileChannel.open(partFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+            if (offset > 0) {
+                // 续传时先对已下载的部分计算摘要
+                channel.position(0);
+                int bytesRead;
+                long remaining = offset;
+                while (remaining > 0 && (bytesRead = channel.read(byteBuffer)) != -1) {
+                    bytesRead = (int) Math.min(bytesRead, remaining);
+                    sha1Digest.update(buffer, 0, bytesRead);
+                    if (expectedDigest != null) {
+                        expectedDigest.update(buffer, 0, bytesRead);
+                    }
+                    remaining -= bytesRead;
+                    byteBuffer.clear();
+                }
+            }
+            channel.truncate(offset);
+            channel.position(offset);
+
+            long totalBytesRead = offset;
+            long tempBytesRead = 0;
             long tempTime = System.currentTimeMillis();
-            while ((bytesRead = input.read(buffer)) != -1) {
+            int bytesRead;
+            while ((bytesRead = readFully(input, buffer, attempt)) > 0) {
                 totalBytesRead += bytesRead;
                 tempBytesRead += bytesRead;
-                output.write(buffer, 0, bytesRead);
+                sha1Digest.update(buffer, 0, bytesRead);
+                if (expectedDigest != null) {
+                    expectedDigest.update(buffer, 0, bytesRead);
+                }
+                byteBuffer.clear().limit(bytesRead);
+                while (byteBuffer.hasRemaining()) {
+                    channel.write(byteBuffer);
+                }
                 long currentTime = System.currentTimeMillis();
                 if (currentTime - tempTime < 500 && totalBytesRead < length) {
                     continue;
                 }
-                int rate = (int) (tempBytesRead / ((currentTime - tempTime) / 1000.0));
-                printProgressBar(file.getName(), length, totalBytesRead, rate);
+                dependencyLoader.fireEvent(DependencyEvent.Type.PROGRESS, attempt.getDependency(), file.getName(), attempt.getRepository(),
+                        tempBytesRead, totalBytesRead, length, TimeUnit.MILLISECONDS.toNanos(currentTime - tempTime));
                 tempTime = currentTime;
                 tempBytesRead = 0;
             }
-            return 1;
+            if (attempt.isCancelled()) {
+                channel.close();
+                partFile.delete();
+                return 7;
+            }
+            if (length >= 0 && totalBytesRead != length) {
+                // 连接提前断开时保留已下载的部分以便续传，超出预期长度的文件则无法使用
+                if (totalBytesRead > length) {
+                    channel.close();
+                    partFile.delete();
+                }
+                logger.severe(String.format("Incomplete download of %s, expected %d bytes but got %d", file.getName(), length, totalBytesRead));
+                return 5;
+            }
         } catch (IOException e) {
+            if (attempt.isCancelled()) {
+                partFile.delete();
+                return 7;
+            }
+            // 保留未完成的文件，以便下次续传
             logger.severe(String.format("Failed to write to file %s\n%s", filePath, ExceptionUtil.stackTraceToString(e)));
-            // 删除损坏文件
-            file.delete();
             return 4;
         }
+
+        return completeDownload(partFile, file, sha1Digest, expectedDigest, expected, attempt, System.nanoTime());
     }
 
-    // 获取最新版本号
-    private String getVersioning(String repository, Dependency dependency) {
-        String url = String.format(
-                "%s%s/%s/maven-metadata.xml",
-                repository,
-                dependency.getGroupId().replace(".", "/"),
-                dependency.getArtifactId()
-        );
-        try (InputStream input = new URL(url).openStream()) {
-            Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(input);
-            return getXmlNode(document, "metadata.versioning." + dependency.getVersion()).getFirstChild().getNodeValue();
-        } catch (Exception e) {
-            logger.severe(String.format("Failed to get the latest version number of the %s !\n%s", dependency, ExceptionUtil.stackTraceToString(e)));
+    /**
+     * Verifies the downloaded ".part" file against the expected checksum and moves it into place.
+     */
+    private int completeDownload(File partFile, File file, MessageDigest sha1Digest, MessageDigest expectedDigest, Checksum expected, DownloadAttempt attempt, long verifyStartTime) {
+        String sha1 = DigestUtil.toHex(sha1Digest.digest());
+        if (expected != null) {
+            String actual = expectedDigest == null ? sha1 : DigestUtil.toHex(expectedDigest.digest());
+            if (!actual.equals(expected.value)) {
+                logger.severe(String.format("Checksum mismatch for %s, expected %s %s but got %s", file.getName(), expected.algorithm, expected.value, actual));
+                partFile.delete();
+                return 6;
+            }
+        } else if (!DependencyLoader.isZipFile(partFile)) {
+            // 仓库未提供校验文件时，至少确认文件是完整的 jar
+            logger.severe(String.format("Downloaded %s is not a valid jar", file.getName()));
+            partFile.delete();
+            return 6;
+        }
+        dependencyLoader.fireEvent(DependencyEvent.Type.VERIFY, attempt.getDependency(), file.getName(), attempt.getRepository(), partFile.length(), 0, partFile.length(), System.nanoTime() - verifyStartTime);
+        // 同一文件的多个下载中只有最先完成的一个会被采用
+        if (!attempt.claim()) {
+            partFile.delete();
+            return 7;
+        }
+        try {
+            moveAtomically(partFile, file);
+        } catch (IOException e) {
+            logger.severe(String.format("Failed to move %s to %s\n%s", partFile, file, ExceptionUtil.stackTraceToString(e)));
+            partFile.delete();
+            return 4;
+        }
+        getValidatorFile(partFile).delete();
+        // 只有通过摘要校验的文件才记录到清单中，其余文件在下次启动时重新校验
+        if (expected != null) {
+            manifest.record(file, sha1);
+        }
+        dependencyLoader.addToStore(file, sha1);
+        dependencyLoader.fireEvent(DependencyEvent.Type.COMPLETE, attempt.getDependency(), file.getName(), attempt.getRepository(), attempt.getTransferred(), file.length(), file.length(), attempt.getElapsedTime());
+        return 1;
+    }
+
+    /**
+     * Downloads a large artifact as several byte ranges in parallel into a preallocated ".part" file.
+     * The first range is read from the response that is already open, and the assembled file is verified once all ranges are written.
+     *
+     * @param segments The number of ranges, each beyond the first backed by a host permit taken by the caller.
+     */
+    private int downloadSegmented(TransportResponse response, String urlStr, String filePath, long length, int segments, Checksum expected, DownloadAttempt attempt) {
+        File file = new File(filePath);
+        File partFile = attempt.getPartFile();
+        file.getParentFile().mkdirs();
+
+        String validator = getValidator(response);
+        long segmentSize = (length + segments - 1) / segments;
+        AtomicLong transferred = new AtomicLong();
+        List<Future<Void>> futures = new ArrayList<>();
+        dependencyLoader.fireEvent(DependencyEvent.Type.DOWNLOAD_START, attempt.getDependency(), file.getName(), attempt.getRepository(), 0, 0, length, 0);
+        try (FileChannel channel = FileChannel.open(partFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            // 预分配文件空间
+            channel.write(ByteBuffer.wrap(new byte[1]), length - 1);
+            for (int i = 0; i < segments; i++) {
+                long start = i * segmentSize;
+                long end = Math.min(length, start + segmentSize) - 1;
+                if (start > end) {
+                    break;
+                }
+                if (i == 0) {
+                    InputStream body = response.getBody();
+                    futures.add(transferExecutor.submit(() -> writeSegment(body, channel, start, end, transferred, attempt)));
+                    continue;
+                }
+                futures.add(transferExecutor.submit(() -> {
+                    // 远程文件在分段下载期间变化时，服务器会返回 200 而非 206
+                    try (TransportResponse segmentResponse = dependencyLoader.getTransport().getRange(urlStr, start, end, validator);
+                         Closeable ignored = attempt.track(segmentResponse)) {
+                        if (segmentResponse.getStatusCode() != 206) {
+                            throw new IOException(String.format("%s responded to a range request with %d", urlStr, segmentResponse.getStatusCode()));
+                        }
+                        return writeSegment(segmentResponse.getBody(), channel, start, end, transferred, attempt);
+                    }
+                }));
+            }
+
+            long tempTime = System.currentTimeMillis();
+            long tempBytesRead = 0;
+            for (Future<Void> future : futures) {
+                while (true) {
+                    try {
+                        future.get(500, TimeUnit.MILLISECONDS);
+                        break;
+                    } catch (TimeoutException e) {
+                        long currentTime = System.currentTimeMillis();
+                        long totalBytesRead = transferred.get();
+                        dependencyLoader.fireEvent(DependencyEvent.Type.PROGRESS, attempt.getDependency(), file.getName(), attempt.getRepository(),
+                                totalBytesRead - tempBytesRead, totalBytesRead, length, TimeUnit.MILLISECONDS.toNanos(currentTime - tempTime));
+                        tempTime = currentTime;
+                        tempBytesRead = totalBytesRead;
+                    }
+                }
+            }
+            long totalBytesRead = transferred.get();
+            dependencyLoader.fireEvent(DependencyEvent.Type.PROGRESS, attempt.getDependency(), file.getName(), attempt.getRepository(),
+                    totalBytesRead - tempBytesRead, totalBytesRead, length, TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - tempTime));
+        } catch (ExecutionException | IOException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            boolean cancelled = attempt.isCancelled();
+            // 停止其余分段并删除不完整的文件
+            attempt.cancel();
+            futures.forEach(future -> future.cancel(true));
+            partFile.delete();
+            if (cancelled) {
+                return 7;
+            }
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            logger.severe(String.format("Failed to download %s!\n%s", urlStr, ExceptionUtil.stackTraceToString(cause)));
+            return 5;
+        }
+        if (attempt.isCancelled()) {
+            partFile.delete();
+            return 7;
+        }
+
+        // 分段乱序写入，只能在拼接完成后统一校验
+        long verifyStartTime = System.nanoTime();
+        MessageDigest sha1Digest = DigestUtil.newDigest("SHA-1");
+        MessageDigest expectedDigest = expected == null || expected.algorithm.equals("SHA-1") ? null : DigestUtil.newDigest(expected.algorithm);
+        try (InputStream input = Files.newInputStream(partFile.toPath())) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int bytesRead;
+            while ((bytesRead = input.read(buffer)) != -1) {
+                sha1Digest.update(buffer, 0, bytesRead);
+                if (expectedDigest != null) {
+                    expectedDigest.update(buffer, 0, bytesRead);
+                }
+            }
+        } catch (IOException e) {
+            logger.severe(String.format("Failed to read file %s\n%s", partFile, ExceptionUtil.stackTraceToString(e)));
+            partFile.delete();
+            return 4;
+        }
+        return completeDownload(partFile, file, sha1Digest, expectedDigest, expected, attempt, verifyStartTime);
+    }
+
+    private static Void writeSegment(InputStream input, FileChannel channel, long start, long end, AtomicLong transferred, DownloadAttempt attempt) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long position = start;
+        while (position <= end && !attempt.isCancelled()) {
+            int bytesRead = input.read(buffer, 0, (int) Math.min(buffer.length, end - position + 1));
+            if (bytesRead == -1) {
+                throw new IOException(String.format("Unexpected end of stream at byte %d of range %d-%d", position, start, end));
+            }
+            attempt.onTransferred(bytesRead);
+            transferred.addAndGet(bytesRead);
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, bytesRead);
+            while (byteBuffer.hasRemaining()) {
+                position += channel.write(byteBuffer, position);
+            }
+        }
+        return null;
+    }
+
+    private static File getValidatorFile(File partFile) {
+        return new File(partFile.getPath() + ".validator");
+    }
+
+    /**
+     * Returns the strong ETag of the response, or its Last-Modified date, for use in an If-Range header.
+     */
+    private static String getValidator(TransportResponse response) {
+        String etag = response.getHeader("ETag");
+        // If-Range 只接受强校验值
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return response.getHeader("Last-Modified");
+    }
+
+    private static String readValidator(File validatorFile) {
+        try {
+            String validator = new String(Files.readAllBytes(validatorFile.toPath()), StandardCharsets.UTF_8).trim();
+            return validator.isEmpty() ? null : validator;
+        } catch (IOException e) {
             return null;
         }
     }
 
-    private Node getXmlNode(Document document, String nodePath) {
-        String[] pathArray = nodePath.split("\\.");
-        NodeList nodeList = document.getElementsByTagName(pathArray[0]).item(0).getChildNodes();
-        List<String> nodePathList = new ArrayList<>(Arrays.asList(pathArray));
-        nodePathList.remove(0);
-        return getNode(nodeList, nodePathList);
+    private void writeValidator(File validatorFile, String validator) {
+        try {
+            if (validator == null) {
+                Files.deleteIfExists(validatorFile.toPath());
+            } else {
+                validatorFile.getParentFile().mkdirs();
+                Files.write(validatorFile.toPath(), validator.getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            logger.warning(String.format("Failed to write %s\n%s", validatorFile, ExceptionUtil.stackTraceToString(e)));
+        }
+    }
+
+    private boolean isSegmentable(TransportResponse response) {
+        return dependencyLoader.getDownloadSegments() > 1
+                && response.getContentLength() >= dependencyLoader.getSegmentedDownloadThreshold()
+                && "bytes".equalsIgnoreCase(response.getHeader("Accept-Ranges"));
+    }
+
+    private static int readFully(InputStream input, byte[] buffer) throws IOException {
+        int length = 0, bytesRead;
+        while (length < buffer.length && (bytesRead = input.read(buffer, length, buffer.length - length)) != -1) {
+            length += bytesRead;
+        }
+        return length;
+    }
+
+    private static int readFully(InputStream input, byte[] buffer, DownloadAttempt attempt) throws IOException {
+        int length = 0, bytesRead;
+        while (length < buffer.length && !attempt.isCancelled() && (bytesRead = input.read(buffer, length, buffer.length - length)) != -1) {
+            length += bytesRead;
+            attempt.onTransferred(bytesRead);
+        }
+        return length;
+    }
+
+    private static void moveAtomically(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
     }
 
-    private Node getNode(NodeList nodeList, List<String> nodePath) {
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Node node = nodeList.item(i);
-            if (node.getNodeName().equals(nodePath.get(0))) {
-                if (nodePath.size() == 1) {
-                    return node;
-                } else {
-                    nodePath.remove(0);
-                    return getNode(node.getChildNodes(), nodePath);
+    /**
+     * Fetches the checksum published next to the artifact, preferring SHA-1 over SHA-256.
+     *
+     * @return the checksum, or null if the repository does not publish one.
+     */
+    private Checksum fetchChecksum(String urlStr) {
+        for (String algorithm : CHECKSUM_ALGORITHMS) {
+            String extension = algorithm.replace("-", "").toLowerCase();
+            try (TransportResponse response = dependencyLoader.getTransport().get(urlStr + "." + extension)) {
+                if (!response.isSuccessful()) {
+                    continue;
                 }
+                Checksum checksum = parseChecksum(algorithm, response.getBody());
+                if (checksum != null) {
+                    return checksum;
+                }
+            } catch (IOException ignored) {
             }
         }
         return null;
     }
 
-    private void printProgressBar(String fileName, int length, int byteSum, int rate) {
-        DecimalFormat format = new DecimalFormat("#0.0");
-        String count = getByteSize(byteSum) + "/" + getByteSize(length);
-        String progress = format.format((byteSum / (double) length) * 100) + "%";
-        String progressBar = toProgressBar(byteSum / (double) length);
-        String message;
-        if (byteSum >= length) {
-            message = String.format("Downloaded %s %s [%s] %s", fileName, progress, progressBar, count);
-        } else {
-            String rateStr = getByteSize(rate) + "/s";
-            String formattedTime = formatTime((int) Math.ceil((length - byteSum) / (double) rate));
-            message = String.format("Downloading %s %s [%s] %s  %s\t eta %s", fileName, progress, progressBar, count, rateStr, formattedTime);
+    private static Checksum readChecksum(File file) {
+        for (String algorithm : CHECKSUM_ALGORITHMS) {
+            File checksumFile = new File(file.getPath() + "." + algorithm.replace("-", "").toLowerCase());
+            if (!checksumFile.isFile()) {
+                continue;
+            }
+            try (InputStream input = Files.newInputStream(checksumFile.toPath())) {
+                Checksum checksum = parseChecksum(algorithm, input);
+                if (checksum != null) {
+                    return checksum;
+                }
+            } catch (IOException ignored) {
+            }
         }
-        logger.info(message);
+        return null;
     }
 
-    private String toProgressBar(double progress) {
-        int max = 15;
-        StringBuilder bar = new StringBuilder();
-        for (int i = 0; i < max; i++) {
-            bar.append(i < progress * max ? "=" : " ");
+    private static Checksum parseChecksum(String algorithm, InputStream input) throws IOException {
+        byte[] bytes = new byte[256];
+        int length = readFully(input, bytes);
+        // 校验文件的格式可能为 "<hash>" 或 "<hash>  <file name>"
+        String value = new String(bytes, 0, length, StandardCharsets.US_ASCII).trim().split("\\s+")[0].toLowerCase();
+        if (value.matches("[0-9a-f]+") && value.length() == DigestUtil.newDigest(algorithm).getDigestLength() * 2) {
+            return new Checksum(algorithm, value);
         }
-        return bar.toString();
+        return null;
     }
 
-    private String formatTime(int time) {
-        StringBuilder formattedTime = new StringBuilder();
-        int hour = time / 3600;
-        int min = (time % 3600) / 60;
-        int sec = time % 60;
-        if (hour > 0) formattedTime.append(hour).append("h ");
-        if (min > 0) formattedTime.append(min).append("m ");
-        formattedTime.append(sec).append("s");
-        return formattedTime.toString().trim();
+    // 获取最新版本号，或版本范围内的最高版本号
+    private String getVersioning(String repository, Dependency dependency) {
+        if (isFileRepository(repository)) {
+            return getLocalVersioning(new File(URI.create(repository)), dependency);
+        }
+        MetadataCache.Metadata metadata = metadataCache.getMetadata(repository, dependency.getGroupId(), dependency.getArtifactId());
+        if (metadata == null) {
+            logger.severe(String.format("Failed to get the latest version number of the %s from %s", dependency, repository));
+            return null;
+        }
+        return selectVersion(dependency, metadata.getVersions(), metadata.getLatest(), metadata.getRelease());
     }
 
-    private String getByteSize(int length) {
-        DecimalFormat format = new DecimalFormat("#0.0");
-        if (length >= 1024 * 1024 * 1024) {
-            return format.format((double) length / (1024 * 1024 * 1024)) + " GB";
+    // 本地仓库没有可靠的元数据，按包含 jar 的版本目录解析
+    private String getLocalVersioning(File localRepository, Dependency dependency) {
+        File artifactFolder = new File(localRepository, String.join(File.separator, dependency.getGroupId().replace(".", File.separator), dependency.getArtifactId()));
+        String[] names = artifactFolder.list();
+        if (names == null) {
+            return null;
         }
-        if (length >= 1024 * 1024) {
-            return format.format((double) length / (1024 * 1024)) + " MB";
+        List<String> versions = new ArrayList<>();
+        for (String name : names) {
+            if (new File(localRepository, getRepositoryPath(dependency.getGroupId(), dependency.getArtifactId(), name)).isFile()) {
+                versions.add(name);
+            }
         }
-        if (length >= 1024) {
-            return format.format((double) length / 1024) + " kB";
+        return selectVersion(dependency, versions, null, null);
+    }
+
+    private String selectVersion(Dependency dependency, Collection<String> versionList, String latest, String release) {
+        NavigableMap<ComparableVersion, String> versions = new TreeMap<>();
+        versionList.forEach(version -> versions.put(new ComparableVersion(version), version));
+        Map.Entry<ComparableVersion, String> entry;
+        switch (dependency.getVersion()) {
+            case "latest":
+                if (latest != null) {
+                    return latest;
+                }
+                entry = versions.lastEntry();
+                break;
+            case "release":
+                if (release != null) {
+                    return release;
+                }
+                // 部分仓库的元数据缺少 release 字段
+                entry = versions.lastEntry();
+                while (entry != null && entry.getKey().isSnapshot()) {
+                    entry = versions.lowerEntry(entry.getKey());
+                }
+                break;
+            default:
+                try {
+                    entry = VersionRange.parse(dependency.getVersion()).matchHighest(versions);
+                } catch (IllegalArgumentException e) {
+                    logger.severe(String.format("Invalid version range in %s: %s", dependency, e.getMessage()));
+                    return null;
+                }
+        }
+        return entry == null ? null : entry.getValue();
+    }
+
+    private static class Checksum {
+        private final String algorithm;
+        private final String value;
+
+        private Checksum(String algorithm, String value) {
+            this.algorithm = algorithm;
+            this.value = value;
         }
-        return length + " Byte";
     }
 }
@@ -0,0 +1,109 @@
+package io.github.theramu.dependencyloader;
+
+import lombok.Getter;
+
+/**
+ * An event emitted by a {@link DependencyLoader} while finding, downloading, verifying and injecting dependencies.
+ *
+ * @author agent
+ * @since 2026/10/17 3:25
+ */
+@Getter
+public class DependencyEvent {
+
+    private final Type type;
+
+    /**
+     * The dependency the event is about, or null for events about a whole batch.
+     */
+    private final Dependency dependency;
+
+    /**
+     * The name of the file the event is about, or null for events about a whole batch.
+     */
+    private final String fileName;
+
+    /**
+     * The repository involved, or null if none is.
+     */
+    private final String repository;
+
+    /**
+     * The number of bytes processed, see {@link Type} for what they count.
+     */
+    private final long bytes;
+
+    /**
+     * The number of bytes of the file transferred so far, for {@link Type#PROGRESS} events.
+     */
+    private final long transferredBytes;
+
+    /**
+     * The total size in bytes of the file, or -1 if it is unknown.
+     */
+    private final long totalBytes;
+
+    /**
+     * The time in nanoseconds the step took, see {@link Type} for what is measured.
+     */
+    private final long duration;
+
+    protected DependencyEvent(Type type, Dependency dependency, String fileName, String repository, long bytes, long transferredBytes, long totalBytes, long duration) {
+        this.type = type;
+        this.dependency = dependency;
+        this.fileName = fileName;
+        this.repository = repository;
+        this.bytes = bytes;
+        this.transferredBytes = transferredBytes;
+        this.totalBytes = totalBytes;
+        this.duration = duration;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DependencyEvent{type=%s, dependency=%s, repository=%s, bytes=%d, totalBytes=%d, duration=%dns}",
+                type, dependency, repository, bytes, totalBytes, duration);
+    }
+
+    public enum Type {
+        /**
+         * The repositories were ranked by latency. The repository is the fastest one, and the duration is the time the probe took.
+         */
+        PROBE,
+        /**
+         * The dependency was found in the libraries folder. The duration is the time the lookup took.
+         */
+        CACHE_HIT,
+        /**
+         * The dependency was not found in the libraries folder. The duration is the time the lookup took.
+         */
+        CACHE_MISS,
+        /**
+         * A transfer from a repository started. The bytes are the resumed offset.
+         */
+        DOWNLOAD_START,
+        /**
+         * A transfer made progress. The bytes and the duration are those since the previous progress event of the transfer.
+         */
+        PROGRESS,
+        /**
+         * A transfer completed and its file was moved into place. The bytes are those transferred by this transfer,
+         * and the duration is the time since it started.
+         */
+        COMPLETE,
+        /**
+         * A transfer from a repository failed or was cancelled. The bytes are those transferred before it stopped,
+         * and the duration is the time since it started.
+         */
+        FAILURE,
+        /**
+         * A file was verified, either a downloaded file against its checksum or a local jar that was not in the manifest.
+         * The bytes are the size of the file.
+         */
+        VERIFY,
+        /**
+         * A batch of jars was injected into the class loader. The bytes are their total size.
+         */
+        INJECT
+    }
+}
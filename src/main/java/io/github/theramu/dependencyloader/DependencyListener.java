@@ -0,0 +1,19 @@
+package io.github.theramu.dependencyloader;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives the events of a {@link DependencyLoader}, e.g. to report progress or feed a metrics pipeline.
+ * <p>
+ * Events are delivered synchronously on the thread doing the work, possibly from several threads at once,
+ * so implementations must be thread-safe and return quickly.
+ *
+ * @author agent
+ * @since 2026/10/17 3:25
+ * @see DependencyLoader#addListener(DependencyListener)
+ */
+@FunctionalInterface
+public interface DependencyListener {
+
+    void onEvent(@NotNull DependencyEvent event);
+}
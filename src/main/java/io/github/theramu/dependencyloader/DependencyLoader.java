@@ -1,17 +1,37 @@
 package io.github.theramu.dependencyloader;
 
+import io.github.theramu.dependencyloader.transport.HttpTransport;
+import io.github.theramu.dependencyloader.transport.Transport;
+import io.github.theramu.dependencyloader.util.DigestUtil;
 import io.github.theramu.dependencyloader.util.ExceptionUtil;
+import io.github.theramu.dependencyloader.util.NetworkUtil;
 import io.github.theramu.dependencyloader.util.ReflectUtil;
+import io.github.theramu.dependencyloader.version.ComparableVersion;
+import io.github.theramu.dependencyloader.version.VersionRange;
+import lombok.Getter;
+import lombok.Setter;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.jar.JarInputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.zip.ZipFile;
 
 /**
  * @author TheRamU
@@ -19,9 +39,187 @@ import java.util.stream.Collectors;
  */
 public class DependencyLoader {
 
+    private static final AtomicInteger ASYNC_THREAD_COUNTER = new AtomicInteger();
+
     protected final Logger logger;
     protected final File librariesFolder;
+    protected final LibraryManifest manifest;
+    protected final MetadataCache metadataCache;
+    protected final RepositoryStats repositoryStats;
+    protected final LocalRepositoryIndex repositoryIndex;
+    protected final PackageIndex packageIndex;
+    protected final LazyDependencies lazyDependencies;
     private final DependencyDownloader downloader;
+    private final DependencyResolver resolver;
+    private volatile DependencyClassLoader classLoader;
+    private volatile ContentStore contentStore;
+    private final List<DependencyListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Whether the transitive dependencies declared in the POM of each dependency are loaded as well.
+     */
+    @Getter
+    @Setter
+    private boolean transitive = false;
+
+    /**
+     * The maximum number of dependencies downloaded at the same time, across all loads of this loader.
+     */
+    @Getter
+    @Setter
+    private int maxConcurrentDownloads = 8;
+
+    /**
+     * The maximum number of concurrent downloads from a single repository host, across all loads of this loader.
+     */
+    @Getter
+    @Setter
+    private int maxConcurrentDownloadsPerHost = 4;
+
+    /**
+     * The timeout in milliseconds of the HTTP probe used to rank repositories before downloading.
+     */
+    @Getter
+    @Setter
+    private int probeTimeout = NetworkUtil.DEFAULT_PROBE_TIMEOUT;
+
+    /**
+     * The transport used to talk to remote repositories.
+     */
+    @Getter
+    @Setter
+    @NotNull
+    private Transport transport = new HttpTransport();
+
+    /**
+     * The number of byte ranges fetched in parallel for artifacts of at least {@link #getSegmentedDownloadThreshold()} bytes,
+     * when the repository accepts range requests. 1 disables segmented downloads.
+     * Each range counts against {@link #getMaxConcurrentDownloadsPerHost()}, so fewer ranges are used while the host is busy.
+     */
+    @Getter
+    @Setter
+    private int downloadSegments = 4;
+
+    /**
+     * The content length in bytes from which artifacts are downloaded in segments.
+     */
+    @Getter
+    @Setter
+    private long segmentedDownloadThreshold = 16 * 1024 * 1024;
+
+    /**
+     * The delay in milliseconds after which a download that has not delivered its first byte,
+     * or is below {@link #getHedgeMinThroughput()}, is also started from the next repository.
+     * The first download to complete wins. 0 disables hedging.
+     */
+    @Getter
+    @Setter
+    private long hedgeDelay = 0;
+
+    /**
+     * The throughput in bytes per second below which a running download is hedged, or 0 to only hedge before the first byte.
+     */
+    @Getter
+    @Setter
+    private long hedgeMinThroughput = 0;
+
+    /**
+     * How long in milliseconds a cached maven-metadata.xml is used before it is revalidated with the repository.
+     */
+    @Getter
+    @Setter
+    private long metadataCacheTtl = TimeUnit.HOURS.toMillis(24);
+
+    /**
+     * How long in milliseconds a repository that reported an artifact missing is not asked for it again. 0 disables it.
+     */
+    @Getter
+    @Setter
+    private long notFoundCacheTtl = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * How long in milliseconds a repository that failed several downloads in a row is skipped. 0 disables it.
+     */
+    @Getter
+    @Setter
+    private long repositoryCooldown = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * Whether dependencies are added to a dedicated {@link #getClassLoader() child class loader}
+     * instead of the class loader that loaded this library.
+     */
+    @Getter
+    @Setter
+    private boolean isolated = false;
+
+    /**
+     * Whether the isolated class loader is an {@link IndexedDependencyClassLoader}, which indexes the packages of each jar
+     * and sends every class or resource lookup straight to the jars containing its package.
+     * The index is kept in the libraries folder. Only takes effect if set before the class loader is created.
+     */
+    @Getter
+    @Setter
+    private boolean packageIndexed = false;
+
+    /**
+     * The lockfile pinning the exact version, repository and SHA-1 of every loaded dependency, or null to not use one.
+     * Unless {@link #isLocked()} is enabled, it is updated after every successful load.
+     */
+    @Getter
+    @Setter
+    private File lockFile;
+
+    /**
+     * Whether dependencies are loaded only as pinned in {@link #getLockFile()}, without resolving versions,
+     * probing repositories, scanning the libraries folder or downloading anything.
+     * A load fails before injecting anything if a dependency is not pinned, or its jar is missing or has changed.
+     */
+    @Getter
+    @Setter
+    private boolean locked = false;
+
+    /**
+     * A folder shared by several libraries folders, e.g. those of all services on a host, that stores every jar once under its SHA-1,
+     * or null to not use one. Jars are linked from it into the libraries folder instead of downloaded whenever their SHA-1 is known
+     * from the lockfile or the repository, and every downloaded jar is added to it.
+     */
+    @Getter
+    @Setter
+    private File sharedStore;
+
+    /**
+     * Whether to copy artifacts from the local Maven repository, {@code ~/.m2/repository} or the folder set by the
+     * {@code maven.repo.local} system property, before trying any remote repository.
+     * Repositories given as {@code file://} URLs are always tried first, whether or not this is enabled.
+     */
+    @Getter
+    @Setter
+    private boolean mavenLocal = false;
+
+    /**
+     * Whether lazy dependencies are downloaded in the background as soon as they are registered,
+     * so that their first use only has to add them to the class loader.
+     * Disabled by default, so that a lazy dependency causes no network access until it is used.
+     */
+    @Getter
+    @Setter
+    private boolean lazyPrefetch = false;
+
+    /**
+     * How long in milliseconds lookups in the packages of a lazy dependency that failed to load
+     * fail right away, before the next lookup tries to load it again.
+     */
+    @Getter
+    @Setter
+    private long lazyRetryDelay = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * The executor used to run downloads, or null to use a pool of daemon threads owned by the loader.
+     * A caller-supplied executor is never shut down by the loader.
+     */
+    @Getter
+    @Setter
+    private ExecutorService executorService;
 
     public DependencyLoader() {
         this(Logger.getLogger(DependencyLoader.class.getName()));
@@ -38,7 +236,48 @@ public class DependencyLoader {
     public DependencyLoader(Logger logger, File librariesFolder) {
         this.logger = logger;
         this.librariesFolder = librariesFolder;
+        this.manifest = new LibraryManifest(logger, librariesFolder);
+        this.metadataCache = new MetadataCache(this);
+        this.repositoryStats = new RepositoryStats(this);
+        this.repositoryIndex = new LocalRepositoryIndex(logger, librariesFolder);
+        this.packageIndex = new PackageIndex(logger, librariesFolder);
+        this.lazyDependencies = new LazyDependencies(this);
         downloader = new DependencyDownloader(this);
+        resolver = new DependencyResolver(this, downloader);
+        listeners.add(new ProgressBarListener(logger));
+    }
+
+    /**
+     * Registers a listener for the events of this loader.
+     */
+    public void addListener(@NotNull DependencyListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(@NotNull DependencyListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the registered listeners, starting with the default {@link ProgressBarListener}.
+     * The list is live, so clearing it also turns off the progress bar.
+     */
+    public List<DependencyListener> getListeners() {
+        return listeners;
+    }
+
+    protected void fireEvent(DependencyEvent.Type type, Dependency dependency, String fileName, String repository, long bytes, long transferredBytes, long totalBytes, long duration) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        DependencyEvent event = new DependencyEvent(type, dependency, fileName, repository, bytes, transferredBytes, totalBytes, duration);
+        for (DependencyListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (Exception e) {
+                logger.warning(String.format("Listener %s failed to handle %s\n%s", listener, event, ExceptionUtil.stackTraceToString(e)));
+            }
+        }
     }
 
     /**
@@ -80,93 +319,529 @@ public class DependencyLoader {
      * @return true if all dependencies were successfully loaded, false otherwise.
      */
     public boolean loadDependencies(@NotNull String[] dependencies, String[] repositories) {
-        List<Dependency> dependencyList = Arrays.stream(dependencies).map(Dependency::new).collect(Collectors.toList());
-        for (Dependency dependency : dependencyList) {
-            findDependencyFile(dependency);
+        return load(dependencies, repositories).isSuccessful();
+    }
+
+    /**
+     * Loads multiple dependencies in the background.
+     *
+     * @param dependencies An array of dependency notations, each in the format "groupId:artifactId:version".
+     * @return a future completed with the result of the load.
+     * @see #loadDependenciesAsync(String[], String[], Executor)
+     */
+    public CompletableFuture<LoadResult> loadDependenciesAsync(@NotNull String[] dependencies) {
+        return loadDependenciesAsync(dependencies, null);
+    }
+
+    /**
+     * Loads multiple dependencies from specified repositories in the background, on a new daemon thread.
+     *
+     * @param dependencies An array of dependency notations, each in the format "groupId:artifactId:version".
+     * @param repositories An array of repository URLs to search for the dependencies.
+     * @return a future completed with the result of the load.
+     * @see #loadDependenciesAsync(String[], String[], Executor)
+     */
+    public CompletableFuture<LoadResult> loadDependenciesAsync(@NotNull String[] dependencies, String[] repositories) {
+        return loadDependenciesAsync(dependencies, repositories, runnable -> {
+            Thread thread = new Thread(runnable, "DependencyLoader-Async-" + ASYNC_THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * Loads multiple dependencies from specified repositories in the background, on the given executor.
+     * <p>
+     * The executor runs the lookup and injection of the batch, while the downloads themselves
+     * run on {@link #getExecutorService()}. The load blocks on the download futures while it waits,
+     * so the download executor must be separate from this one, or larger than it if both are bounded;
+     * sharing one bounded pool can deadlock once all of its threads wait for downloads queued behind them.
+     *
+     * @param dependencies An array of dependency notations, each in the format "groupId:artifactId:version".
+     * @param repositories An array of repository URLs to search for the dependencies.
+     * @param executor     The executor running the load, e.g. a virtual thread executor.
+     * @return a future completed with the result of the load, or completed exceptionally if a notation is invalid.
+     * @throws IllegalArgumentException if the executor is the bounded {@link #getExecutorService()} itself.
+     */
+    public CompletableFuture<LoadResult> loadDependenciesAsync(@NotNull String[] dependencies, String[] repositories, @NotNull Executor executor) {
+        if (executor == executorService && isBounded(executorService)) {
+            throw new IllegalArgumentException("The executor running the load must not be the bounded executor running the downloads");
         }
-        List<Dependency> notDownList = dependencyList.stream().filter(dependency -> dependency.getFile() == null).collect(Collectors.toList());
-        if (!notDownList.isEmpty()) {
-            downloader.downloadDependencies(notDownList, repositories);
+        return CompletableFuture.supplyAsync(() -> load(dependencies, repositories), executor);
+    }
+
+    private static boolean isBounded(ExecutorService executor) {
+        return executor instanceof ThreadPoolExecutor && ((ThreadPoolExecutor) executor).getMaximumPoolSize() < Integer.MAX_VALUE;
+    }
+
+    /**
+     * Registers a dependency that is only loaded the first time a class in one of its packages is requested
+     * from the {@link #getClassLoader() isolated class loader}, e.g. an optional database driver.
+     *
+     * @param dependency The dependency notation in the format "groupId:artifactId:version".
+     * @param packages   The packages the dependency provides, e.g. "com.mysql.cj". Their subpackages are included.
+     * @throws IllegalStateException if {@link #isIsolated()} is not enabled.
+     * @see #registerLazyDependency(String, String[], String[])
+     */
+    public void registerLazyDependency(@NotNull String dependency, @NotNull String[] packages) {
+        registerLazyDependency(dependency, packages, null);
+    }
+
+    /**
+     * Registers a dependency from specified repositories that is only loaded the first time a class or resource in one of its packages
+     * is requested from the {@link #getClassLoader() isolated class loader}, e.g. an optional database driver.
+     * Listing the package of a service interface as well, e.g. "java.sql", loads it when a {@link java.util.ServiceLoader} looks up that service.
+     * It is downloaded in the background meanwhile only if {@link #isLazyPrefetch()} is enabled.
+     * A failed load is retried by the first lookup after {@link #getLazyRetryDelay()}.
+     *
+     * @param dependency   The dependency notation in the format "groupId:artifactId:version".
+     * @param packages     The packages the dependency provides, e.g. "com.mysql.cj". Their subpackages are included.
+     * @param repositories An array of repository URLs to search for the dependency.
+     * @throws IllegalStateException if {@link #isIsolated()} is not enabled.
+     */
+    public void registerLazyDependency(@NotNull String dependency, @NotNull String[] packages, String[] repositories) {
+        if (!isolated) {
+            throw new IllegalStateException("Lazy dependencies require an isolated class loader");
+        }
+        // 注册时即校验格式，而非首次使用时
+        new Dependency(dependency);
+        lazyDependencies.register(dependency, packages.clone(), repositories);
+    }
+
+    /**
+     * Downloads, verifies and indexes multiple dependencies into the libraries folder without adding them to any class loader,
+     * e.g. to fill the libraries folder while building an image. Every setting applies as for {@link #loadDependencies(String[], String[])},
+     * and the package index is filled as well when {@link #isPackageIndexed()} is enabled.
+     *
+     * @param dependencies An array of dependency notations, each in the format "groupId:artifactId:version".
+     * @param repositories An array of repository URLs to search for the dependencies.
+     * @return true if all dependencies are in the libraries folder, false otherwise.
+     */
+    public boolean prefetchDependencies(@NotNull String[] dependencies, String[] repositories) {
+        LoadResult result = load(dependencies, repositories, false);
+        return isPrefetched(result.getDependencies());
+    }
+
+    private LoadResult load(String[] dependencies, String[] repositories) {
+        return load(dependencies, repositories, true);
+    }
+
+    private LoadResult load(String[] dependencies, String[] repositories, boolean inject) {
+        return load(dependencies, repositories, inject, true);
+    }
+
+    /**
+     * Loads the dependencies like {@link #loadDependencies(String[], String[])}, leaving the caches, the repository statistics
+     * and the lock file to {@link #save(LoadResult)}, so that a lazy load triggered by a class lookup does not write them meanwhile.
+     */
+    LoadResult loadWithoutSaving(String[] dependencies, String[] repositories) {
+        return load(dependencies, repositories, true, false);
+    }
+
+    /**
+     * Saves what a load without saving has left: the caches, the repository statistics and, if the load succeeded, the lock file.
+     */
+    void save(LoadResult result) {
+        saveCaches();
+        if (isolated) {
+            packageIndex.save();
+        }
+        if (lockFile != null && !locked && result.isSuccessful()) {
+            writeLockFile(result.getDependencies());
+        }
+    }
+
+    private LoadResult load(String[] dependencies, String[] repositories, boolean inject, boolean save) {
+        long startTime = System.currentTimeMillis();
+        List<Dependency> roots = Arrays.stream(dependencies).map(Dependency::new).collect(Collectors.toList());
+        if (locked) {
+            return loadLocked(roots, startTime, inject, save);
+        }
+        List<Dependency> dependencyList = transitive ? resolver.resolve(roots, repositories) : roots;
+        try {
+            for (Dependency dependency : dependencyList) {
+                findDependencyFile(dependency);
+            }
+            if (sharedStore != null && lockFile != null && lockFile.isFile()) {
+                findPinnedStoreFiles(dependencyList);
+            }
+            List<Dependency> notDownList = dependencyList.stream().filter(dependency -> dependency.getFile() == null).collect(Collectors.toList());
+            if (!notDownList.isEmpty()) {
+                downloader.downloadDependencies(notDownList, repositories);
+            }
+        } finally {
+            if (save) {
+                saveCaches();
+            }
+        }
+        if (inject) {
+            injectDependencies(dependencyList);
+            if (save && isolated) {
+                packageIndex.save();
+            }
+        } else {
+            indexPackages(dependencyList);
+        }
+        LoadResult result = new LoadResult(dependencyList, System.currentTimeMillis() - startTime);
+        if (save && lockFile != null && (inject ? result.isSuccessful() : isPrefetched(dependencyList))) {
+            writeLockFile(dependencyList);
+        }
+        return result;
+    }
+
+    /**
+     * Loads the dependencies pinned in the lockfile, failing before anything is injected
+     * if a dependency is not pinned or its jar is missing or has changed.
+     */
+    private LoadResult loadLocked(List<Dependency> roots, long startTime, boolean inject, boolean save) {
+        if (lockFile == null) {
+            throw new IllegalStateException("Locked mode requires a lock file");
+        }
+        List<Dependency> dependencyList;
+        try {
+            dependencyList = findLockedDependencies(roots);
+        } finally {
+            if (save) {
+                manifest.save();
+            }
+        }
+        if (dependencyList == null) {
+            return new LoadResult(roots, System.currentTimeMillis() - startTime);
+        }
+        if (inject) {
+            injectDependencies(dependencyList);
+            if (save && isolated) {
+                packageIndex.save();
+            }
+        } else {
+            indexPackages(dependencyList);
+        }
+        return new LoadResult(dependencyList, System.currentTimeMillis() - startTime);
+    }
+
+    private void saveCaches() {
+        manifest.save();
+        metadataCache.save();
+        repositoryStats.save();
+    }
+
+    private List<Dependency> findLockedDependencies(List<Dependency> roots) {
+        Map<String, LockFile.Entry> entries;
+        try {
+            entries = new LockFile(lockFile).read();
+        } catch (IOException e) {
+            logger.severe(String.format("Failed to read lock file %s\n%s", lockFile, ExceptionUtil.stackTraceToString(e)));
+            return null;
+        }
+        Map<String, LockFile.Entry> rootEntries = new LinkedHashMap<>();
+        for (Dependency root : roots) {
+            String key = root.getGroupId() + ":" + root.getArtifactId();
+            LockFile.Entry entry = entries.get(key);
+            if (entry == null) {
+                logger.severe(String.format("Dependency %s is not pinned in lock file %s", root, lockFile));
+                return null;
+            }
+            if (!isPinnedVersion(root.getVersion(), entry.getVersion())) {
+                logger.severe(String.format("Dependency %s is pinned to version %s in lock file %s", root, entry.getVersion(), lockFile));
+                return null;
+            }
+            rootEntries.put(key, entry);
+        }
+
+        // 先按声明顺序加载请求的依赖，再按锁文件顺序加载来源于它们的传递依赖
+        List<LockFile.Entry> lockedEntries = new ArrayList<>(rootEntries.values());
+        if (transitive) {
+            for (LockFile.Entry entry : entries.values()) {
+                if (!rootEntries.containsKey(entry.getKey()) && !Collections.disjoint(entry.getRoots(), rootEntries.keySet())) {
+                    lockedEntries.add(entry);
+                }
+            }
+        }
+        List<Dependency> dependencyList = new ArrayList<>();
+        for (LockFile.Entry entry : lockedEntries) {
+            long startTime = System.nanoTime();
+            Dependency dependency = new Dependency(entry.getGroupId(), entry.getArtifactId(), entry.getVersion());
+            File file = downloader.getLocalFile(entry.getGroupId(), entry.getArtifactId(), entry.getVersion());
+            boolean valid = verifyJarFile(file) && entry.getSha1().equals(manifest.getSha1(file));
+            if (!valid && !linkFromStore(entry.getSha1(), file)) {
+                logger.severe(String.format("Locked dependency %s is missing or does not match SHA-1 %s", dependency, entry.getSha1()));
+                return null;
+            }
+            long duration = System.nanoTime() - startTime;
+            dependency.setFile(file);
+            dependency.setSource(valid ? Dependency.Source.LOCAL : Dependency.Source.SHARED_STORE);
+            dependency.setFindTime(TimeUnit.NANOSECONDS.toMillis(duration));
+            dependency.setRoots(entry.getRoots());
+            fireEvent(DependencyEvent.Type.CACHE_HIT, dependency, file.getName(), entry.getRepository(), 0, 0, file.length(), duration);
+            dependencyList.add(dependency);
+        }
+        return dependencyList;
+    }
+
+    /**
+     * Links the dependencies that are not in the libraries folder from the shared store, when the lockfile pins their SHA-1.
+     */
+    private void findPinnedStoreFiles(List<Dependency> dependencyList) {
+        Map<String, LockFile.Entry> entries;
+        try {
+            entries = new LockFile(lockFile).read();
+        } catch (IOException e) {
+            logger.warning(String.format("Failed to read lock file %s\n%s", lockFile, ExceptionUtil.stackTraceToString(e)));
+            return;
         }
         for (Dependency dependency : dependencyList) {
-            if (dependency.getFile() == null || !loadJarFile(dependency.getFile())) {
-                logger.severe(String.format("Failed to load dependency %s", dependency));
-                return false;
+            LockFile.Entry entry = entries.get(dependency.getGroupId() + ":" + dependency.getArtifactId());
+            if (dependency.getFile() != null || entry == null || !isPinnedVersion(dependency.getVersion(), entry.getVersion())) {
+                continue;
             }
+            File file = downloader.getLocalFile(entry.getGroupId(), entry.getArtifactId(), entry.getVersion());
+            if (linkFromStore(entry.getSha1(), file)) {
+                repositoryIndex.add(entry.getGroupId(), entry.getArtifactId(), entry.getVersion(), file);
+                dependency.setFile(file);
+                dependency.setSource(Dependency.Source.SHARED_STORE);
+            }
+        }
+    }
+
+    /**
+     * Links the jar with the SHA-1 from the shared store to the file and records it in the manifest.
+     *
+     * @return false if there is no shared store or the jar is not in it.
+     */
+    protected boolean linkFromStore(String sha1, File file) {
+        ContentStore store = getContentStore();
+        if (store == null || !store.link(sha1, file)) {
+            return false;
         }
+        manifest.record(file, sha1);
         return true;
     }
 
-    private void findDependencyFile(Dependency dependency) {
-        if (!librariesFolder.exists() || librariesFolder.isFile()) {
-            return;
+    /**
+     * Adds the verified jar to the shared store, if there is one.
+     */
+    protected void addToStore(File file, String sha1) {
+        ContentStore store = getContentStore();
+        if (store != null) {
+            store.add(file, sha1);
         }
+    }
 
-        String groupIdPath = dependency.getGroupId().replace(".", File.separator);
-        File dependencyFolder = new File(librariesFolder, groupIdPath + File.separator + dependency.getArtifactId());
+    /**
+     * Returns the shared store, or null if {@link #getSharedStore()} is not set.
+     */
+    protected ContentStore getContentStore() {
+        File folder = sharedStore;
+        if (folder == null) {
+            return null;
+        }
+        ContentStore store = contentStore;
+        // 共享存储变更后才重新创建
+        if (store == null || !store.getFolder().equals(folder)) {
+            store = new ContentStore(logger, folder);
+            contentStore = store;
+        }
+        return store;
+    }
 
-        if (!dependencyFolder.exists() || !dependencyFolder.isDirectory()) {
-            return;
+    private static boolean isPinnedVersion(String requested, String pinned) {
+        if (requested.equals("latest") || requested.equals(pinned)) {
+            return true;
         }
+        if (requested.equals("release")) {
+            return !new ComparableVersion(pinned).isSnapshot();
+        }
+        return VersionRange.isRange(requested) && VersionRange.parse(requested).containsVersion(new ComparableVersion(pinned));
+    }
 
-        File[] versionFolders = dependencyFolder.listFiles(File::isDirectory);
-        if (versionFolders == null) {
-            return;
+    private void writeLockFile(List<Dependency> dependencyList) {
+        List<LockFile.Entry> entries = new ArrayList<>();
+        try {
+            for (Dependency dependency : dependencyList) {
+                File file = dependency.getFile();
+                String sha1 = manifest.getSha1(file);
+                if (sha1 == null) {
+                    sha1 = DigestUtil.digest(file, "SHA-1");
+                }
+                // 目录名即为解析后的版本号
+                String version = file.getParentFile().getName();
+                // 未解析传递依赖时，每个依赖即为自身的来源
+                Set<String> roots = dependency.getRoots() != null ? new LinkedHashSet<>(dependency.getRoots())
+                        : new LinkedHashSet<>(Collections.singleton(dependency.getGroupId() + ":" + dependency.getArtifactId()));
+                entries.add(new LockFile.Entry(dependency.getGroupId(), dependency.getArtifactId(), version, dependency.getRepository(), sha1, roots));
+            }
+            new LockFile(lockFile).write(entries);
+        } catch (IOException e) {
+            logger.warning(String.format("Failed to write lock file %s\n%s", lockFile, ExceptionUtil.stackTraceToString(e)));
         }
+    }
 
-        // 翻转数组，以便从最新版本开始查找
-        for (File versionFolder : reverseArray(versionFolders)) {
-            if (!matchesVersion(dependency.getVersion(), versionFolder.getName())) {
+    /**
+     * Injects the dependencies in declared order in a single batch, stopping at the first one without a file.
+     */
+    private void injectDependencies(List<Dependency> dependencyList) {
+        List<Dependency> loadList = new ArrayList<>();
+        for (Dependency dependency : dependencyList) {
+            if (dependency.getFile() == null) {
+                logger.severe(String.format("Failed to load dependency %s", dependency));
+                break;
+            }
+            loadList.add(dependency);
+        }
+        long loadStartTime = System.nanoTime();
+        if (!loadList.isEmpty() && loadJarFiles(loadList)) {
+            long loadTime = System.nanoTime() - loadStartTime;
+            long bytes = 0;
+            for (Dependency dependency : loadList) {
+                dependency.setLoadTime(TimeUnit.NANOSECONDS.toMillis(loadTime));
+                dependency.setLoaded(true);
+                bytes += dependency.getFile().length();
+            }
+            fireEvent(DependencyEvent.Type.INJECT, null, null, null, bytes, 0, bytes, loadTime);
+        }
+    }
+
+    /**
+     * Records the packages of the prefetched jars in the package index, so that a later load does not have to scan them.
+     */
+    private void indexPackages(List<Dependency> dependencyList) {
+        for (Dependency dependency : dependencyList) {
+            if (dependency.getFile() == null) {
+                logger.severe(String.format("Failed to prefetch dependency %s", dependency));
+                continue;
+            }
+            if (!packageIndexed) {
                 continue;
             }
+            try {
+                packageIndex.getPackages(dependency.getFile());
+            } catch (IOException e) {
+                logger.warning(String.format("Failed to index packages of %s\n%s", dependency.getFile(), ExceptionUtil.stackTraceToString(e)));
+            }
+        }
+        if (packageIndexed) {
+            packageIndex.save();
+        }
+    }
 
-            File jarFile = new File(versionFolder, dependency.getArtifactId() + "-" + versionFolder.getName() + ".jar");
-            if (isValidJarFile(jarFile)) {
-                dependency.setFile(jarFile);
+    private static boolean isPrefetched(List<Dependency> dependencyList) {
+        return dependencyList.stream().allMatch(dependency -> dependency.getFile() != null);
+    }
+
+    /**
+     * Returns the class loader the dependencies are added to when {@link #isIsolated()} is enabled,
+     * creating it on first use as a child of the class loader that loaded this library.
+     */
+    public DependencyClassLoader getClassLoader() {
+        if (classLoader == null) {
+            synchronized (this) {
+                if (classLoader == null) {
+                    ClassLoader parent = DependencyLoader.class.getClassLoader();
+                    DependencyClassLoader newClassLoader = packageIndexed ? new IndexedDependencyClassLoader(parent, packageIndex) : new DependencyClassLoader(parent);
+                    newClassLoader.setLazyDependencies(lazyDependencies);
+                    classLoader = newClassLoader;
+                }
             }
         }
+        return classLoader;
     }
 
-    private boolean matchesVersion(String version, String folderName) {
-        if (version.equals("latest") || version.equals("release")) {
-            version = ".*";
+    /**
+     * Sets the file of the dependency to the jar of its highest intact local version, if there is one.
+     */
+    void findDependencyFile(Dependency dependency) {
+        long startTime = System.nanoTime();
+        File jarFile;
+        while ((jarFile = repositoryIndex.find(dependency)) != null) {
+            if (isValidJarFile(jarFile)) {
+                dependency.setFile(jarFile);
+                dependency.setSource(Dependency.Source.LOCAL);
+                break;
+            }
+            // 损坏的文件已被删除，继续查找次高的版本
+            repositoryIndex.remove(dependency.getGroupId(), dependency.getArtifactId(), jarFile.getParentFile().getName());
+        }
+        long duration = System.nanoTime() - startTime;
+        dependency.setFindTime(TimeUnit.NANOSECONDS.toMillis(duration));
+        if (jarFile != null) {
+            fireEvent(DependencyEvent.Type.CACHE_HIT, dependency, jarFile.getName(), null, 0, 0, jarFile.length(), duration);
+        } else {
+            fireEvent(DependencyEvent.Type.CACHE_MISS, dependency, null, null, 0, 0, -1, duration);
         }
-        return Pattern.matches(version, folderName);
     }
 
-    private File[] reverseArray(File[] array) {
-        if (array == null) {
-            return new File[0];
+    /**
+     * Checks whether the jar is intact, deleting it if it is not.
+     */
+    boolean isValidJarFile(File file) {
+        if (verifyJarFile(file)) {
+            return true;
+        }
+        if (!file.exists()) {
+            return false;
         }
-        for (int i = 0; i < array.length / 2; i++) {
-            File temp = array[i];
-            array[i] = array[array.length - i - 1];
-            array[array.length - i - 1] = temp;
+        // 在锁内复查后再删除，避免删除其他进程刚写入的文件
+        try (ArtifactLock ignored = ArtifactLock.acquire(file)) {
+            if (verifyJarFile(file)) {
+                return true;
+            }
+            file.delete();
+            manifest.remove(file);
+        } catch (IOException e) {
+            logger.warning(String.format("Failed to lock %s\n%s", file.getName(), ExceptionUtil.stackTraceToString(e)));
         }
-        return array;
+        return false;
     }
 
-    private boolean isValidJarFile(File file) {
+    /**
+     * Checks whether the jar is intact without deleting it, recording it in the manifest if it is.
+     */
+    protected boolean verifyJarFile(File file) {
         if (!file.exists() || file.length() == 0) {
             return false;
         }
+        // 大小与修改时间均未变化时，无需再次校验
+        if (manifest.matches(file)) {
+            return true;
+        }
+
+        long startTime = System.nanoTime();
+        if (!isZipFile(file)) {
+            return false;
+        }
+        try {
+            manifest.record(file, DigestUtil.digest(file, "SHA-1"));
+        } catch (IOException e) {
+            logger.warning(String.format("Failed to compute the checksum of %s\n%s", file.getName(), ExceptionUtil.stackTraceToString(e)));
+        }
+        fireEvent(DependencyEvent.Type.VERIFY, null, file.getName(), null, file.length(), 0, file.length(), System.nanoTime() - startTime);
+        return true;
+    }
 
-        try (JarInputStream jarInputStream = new JarInputStream(file.toURI().toURL().openStream())) {
-            // 循环读取所有实体，以确保文件不损坏
-            while (jarInputStream.getNextJarEntry() != null) ;
+    /**
+     * Checks whether the file is a complete zip archive by reading its central directory.
+     */
+    protected static boolean isZipFile(File file) {
+        // 只读取中央目录，截断或损坏的文件无法被打开
+        try (ZipFile zipFile = new ZipFile(file)) {
+            zipFile.size();
             return true;
         } catch (IOException e) {
-            file.delete();
             return false;
         }
     }
 
-    private boolean loadJarFile(File file) {
+    private boolean loadJarFiles(List<Dependency> dependencies) {
+        List<File> files = dependencies.stream().map(Dependency::getFile).collect(Collectors.toList());
         try {
-            ReflectUtil.loadJarFile(file);
+            if (isolated) {
+                getClassLoader().addJarFiles(files);
+            } else {
+                ReflectUtil.loadJarFiles(files);
+            }
             return true;
         } catch (Exception e) {
-            logger.severe(String.format("Failed to load dependency %s\n%s", file.getName(), ExceptionUtil.stackTraceToString(e)));
+            logger.severe(String.format("Failed to load dependencies %s\n%s", dependencies, ExceptionUtil.stackTraceToString(e)));
         }
         return false;
     }
@@ -0,0 +1,193 @@
+package io.github.theramu.dependencyloader;
+
+import io.github.theramu.dependencyloader.util.ExceptionUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * The command line entry point of the jar, which fills a libraries folder ahead of time,
+ * e.g. while building an image, so that the application starts without any network access.
+ * <p>
+ * Dependencies are downloaded, verified and indexed in parallel but not loaded into any class loader.
+ * Given only a lockfile, the dependencies pinned in it are prefetched and then checked as a locked load would check them.
+ * The process exits with 0 on success, 1 if a dependency could not be prefetched and 2 on invalid arguments.
+ *
+ * @author agent
+ * @since 2026/10/17 3:42
+ */
+public class DependencyPrefetcher {
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -jar dependency-loader.jar [options] [groupId:artifactId:version ...]",
+            "Downloads, verifies and indexes dependencies into a libraries folder without loading them.",
+            "",
+            "Options:",
+            "  -d, --libraries <folder>     The libraries folder, \"libraries\" by default",
+            "  -r, --repository <url>       A repository to download from, may be repeated",
+            "  -f, --file <file>            Reads dependencies from the file, one per line",
+            "  -l, --lock-file <file>       Writes the lockfile of the given dependencies,",
+            "                               or prefetches the dependencies pinned in it if none are given",
+            "  -t, --transitive             Also prefetches the transitive dependencies",
+            "  -m, --maven-local            Copies jars from the local Maven repository when it has them",
+            "  -s, --shared-store <folder>  Links jars from the shared store and adds downloaded ones to it",
+            "  -p, --package-index          Also fills the package index of the isolated class loader",
+            "  -h, --help                   Prints this message"
+    );
+
+    private final Logger logger = Logger.getLogger(DependencyLoader.class.getName());
+    private final Set<String> dependencies = new LinkedHashSet<>();
+    private final Set<String> repositories = new LinkedHashSet<>();
+    private File librariesFolder = new File("libraries");
+    private File lockFile;
+    private File sharedStore;
+    private boolean transitive;
+    private boolean mavenLocal;
+    private boolean packageIndexed;
+
+    public static void main(String[] args) {
+        DependencyPrefetcher prefetcher = new DependencyPrefetcher();
+        try {
+            if (!prefetcher.parse(args)) {
+                System.out.println(USAGE);
+                return;
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        System.exit(prefetcher.run() ? 0 : 1);
+    }
+
+    /**
+     * @return false if only the usage was asked for.
+     */
+    private boolean parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "-h":
+                case "--help":
+                    return false;
+                case "-d":
+                case "--libraries":
+                    librariesFolder = new File(getValue(args, ++i, arg));
+                    break;
+                case "-r":
+                case "--repository":
+                    repositories.add(getValue(args, ++i, arg));
+                    break;
+                case "-f":
+                case "--file":
+                    readDependencies(new File(getValue(args, ++i, arg)));
+                    break;
+                case "-l":
+                case "--lock-file":
+                    lockFile = new File(getValue(args, ++i, arg));
+                    break;
+                case "-t":
+                case "--transitive":
+                    transitive = true;
+                    break;
+                case "-m":
+                case "--maven-local":
+                    mavenLocal = true;
+                    break;
+                case "-s":
+                case "--shared-store":
+                    sharedStore = new File(getValue(args, ++i, arg));
+                    break;
+                case "-p":
+                case "--package-index":
+                    packageIndexed = true;
+                    break;
+                default:
+                    if (arg.startsWith("-")) {
+                        throw new IllegalArgumentException("Unknown option " + arg);
+                    }
+                    dependencies.add(arg);
+            }
+        }
+        if (dependencies.isEmpty() && (lockFile == null || !lockFile.isFile())) {
+            throw new IllegalArgumentException("No dependencies given");
+        }
+        for (String dependency : dependencies) {
+            // 提前校验格式，避免下载到一半才失败
+            try {
+                new Dependency(dependency);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(String.format("Invalid dependency notation %s", dependency));
+            }
+        }
+        return true;
+    }
+
+    private static String getValue(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    private void readDependencies(File file) {
+        try {
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    dependencies.add(line);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException(String.format("Failed to read %s: %s", file, e));
+        }
+    }
+
+    private boolean run() {
+        DependencyLoader loader = new DependencyLoader(logger, librariesFolder);
+        loader.setTransitive(transitive);
+        loader.setMavenLocal(mavenLocal);
+        loader.setSharedStore(sharedStore);
+        loader.setPackageIndexed(packageIndexed);
+        if (!dependencies.isEmpty()) {
+            loader.setLockFile(lockFile);
+            return loader.prefetchDependencies(dependencies.toArray(new String[0]), getRepositories());
+        }
+
+        Map<String, LockFile.Entry> entries;
+        try {
+            entries = new LockFile(lockFile).read();
+        } catch (IOException e) {
+            logger.severe(String.format("Failed to read lock file %s\n%s", lockFile, ExceptionUtil.stackTraceToString(e)));
+            return false;
+        }
+        List<String> pinned = new ArrayList<>();
+        for (LockFile.Entry entry : entries.values()) {
+            pinned.add(entry.getKey() + ":" + entry.getVersion());
+            if (entry.getRepository() != null) {
+                repositories.add(entry.getRepository());
+            }
+        }
+        // 锁文件已包含完整的依赖树，逐项下载后按锁定模式校验摘要
+        String[] pinnedDependencies = pinned.toArray(new String[0]);
+        loader.setTransitive(false);
+        if (!loader.prefetchDependencies(pinnedDependencies, getRepositories())) {
+            return false;
+        }
+        loader.setLockFile(lockFile);
+        loader.setLocked(true);
+        return loader.prefetchDependencies(pinnedDependencies, null);
+    }
+
+    private String[] getRepositories() {
+        return repositories.isEmpty() ? null : repositories.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,458 @@
+package io.github.theramu.dependencyloader;
+
+import io.github.theramu.dependencyloader.transport.TransportResponse;
+import io.github.theramu.dependencyloader.util.DigestUtil;
+import io.github.theramu.dependencyloader.util.ExceptionUtil;
+import org.jetbrains.annotations.NotNull;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Expands dependencies with their transitive dependencies by reading the POM of each artifact.
+ * <p>
+ * Only compile and runtime dependencies are followed, optional dependencies are skipped,
+ * exclusions are inherited along each path and conflicts are settled by nearest-wins.
+ * Like Maven, the {@code dependencyManagement} of each root overrides the versions of the
+ * transitive dependencies in its tree, while the versions the root declares directly are kept.
+ * The POMs of one depth are fetched in parallel, and the resolved graph is cached in the
+ * libraries folder keyed by the root coordinates, so later runs don't parse any POM.
+ *
+ * @author agent
+ * @since 2026/10/17 3:11
+ */
+public class DependencyResolver {
+
+    public static final String CACHE_FOLDER_NAME = ".resolution";
+    private static final Set<String> INCLUDED_SCOPES = new HashSet<>(Arrays.asList("compile", "runtime"));
+    private static final Pattern PROPERTY_PATTERN = Pattern.compile("\\$\\{([^}]+)}");
+    private static final int MAX_PARENT_DEPTH = 16;
+    // DocumentBuilder 不是线程安全的，每个线程使用各自的实例
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = ThreadLocal.withInitial(DependencyResolver::newDocumentBuilder);
+
+    private final DependencyLoader dependencyLoader;
+    private final DependencyDownloader downloader;
+    private final Logger logger;
+    private final File cacheFolder;
+    private final Map<String, Model> modelCache = new ConcurrentHashMap<>();
+
+    protected DependencyResolver(DependencyLoader dependencyLoader, DependencyDownloader downloader) {
+        this.dependencyLoader = dependencyLoader;
+        this.downloader = downloader;
+        this.logger = dependencyLoader.logger;
+        this.cacheFolder = new File(dependencyLoader.librariesFolder, CACHE_FOLDER_NAME);
+    }
+
+    /**
+     * Resolves the transitive closure of the roots.
+     *
+     * @return the roots in their declared order, followed by their transitive dependencies ordered by depth,
+     * each with the roots whose dependency trees contain it.
+     */
+    protected List<Dependency> resolve(@NotNull List<Dependency> roots, String[] repositories) {
+        // 包含动态版本号或版本范围的依赖无法缓存
+        boolean cacheable = roots.stream().noneMatch(Dependency::isDynamicVersion);
+        File cacheFile = new File(cacheFolder, DigestUtil.toHex(DigestUtil.newDigest("SHA-1").digest(
+                roots.stream().map(Dependency::toString).collect(Collectors.joining(",")).getBytes(StandardCharsets.UTF_8)
+        )) + ".txt");
+        if (cacheable && cacheFile.isFile()) {
+            List<Dependency> cached = readCache(roots, cacheFile);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        List<String> repositoryList = downloader.getRepositoryList(repositories);
+        Map<String, Dependency> resolved = new LinkedHashMap<>();
+        Map<String, Set<String>> edges = new HashMap<>();
+        List<ResolutionNode> current = new ArrayList<>();
+        for (Dependency root : roots) {
+            resolved.putIfAbsent(getKey(root.getGroupId(), root.getArtifactId()), root);
+            current.add(new ResolutionNode(root, Collections.emptySet(), null));
+        }
+
+        boolean complete = true;
+        while (!current.isEmpty()) {
+            Map<ResolutionNode, Model> models = new ConcurrentHashMap<>();
+            downloader.getScheduler().runAll(current, node -> {
+                Model model = getModel(repositoryList, node.dependency);
+                if (model != null) {
+                    models.put(node, model);
+                }
+            });
+
+            List<ResolutionNode> next = new ArrayList<>();
+            for (ResolutionNode node : current) {
+                Model model = models.get(node);
+                if (model == null) {
+                    logger.warning(String.format("Failed to resolve the dependencies of %s", node.dependency));
+                    complete = false;
+                    continue;
+                }
+                // 根依赖的 dependencyManagement 作用于其整棵依赖树
+                Map<String, PomDependency> management = node.management == null ? model.managedDependencies : node.management;
+                for (PomDependency pomDependency : model.dependencies) {
+                    if (!INCLUDED_SCOPES.contains(pomDependency.scope) || pomDependency.optional
+                            || !"jar".equals(pomDependency.type) || pomDependency.classifier != null
+                            || node.isExcluded(pomDependency.groupId, pomDependency.artifactId)) {
+                        continue;
+                    }
+                    String key = getKey(pomDependency.groupId, pomDependency.artifactId);
+                    edges.computeIfAbsent(getKey(node.dependency.getGroupId(), node.dependency.getArtifactId()), k -> new LinkedHashSet<>()).add(key);
+                    // 路径最短的版本优先
+                    if (resolved.containsKey(key)) {
+                        continue;
+                    }
+                    PomDependency rootManaged = node.management == null ? null : node.management.get(key);
+                    String version = rootManaged != null && rootManaged.version != null ? rootManaged.version : pomDependency.version;
+                    if (version == null) {
+                        PomDependency managed = model.managedDependencies.get(key);
+                        version = managed == null ? null : managed.version;
+                    }
+                    if (version == null) {
+                        logger.warning(String.format("Cannot determine the version of %s required by %s", key, node.dependency));
+                        complete = false;
+                        continue;
+                    }
+                    Dependency dependency = new Dependency(pomDependency.groupId, pomDependency.artifactId, version);
+                    resolved.put(key, dependency);
+                    Set<String> exclusions = new HashSet<>(node.exclusions);
+                    exclusions.addAll(pomDependency.exclusions);
+                    next.add(new ResolutionNode(dependency, exclusions, management));
+                }
+            }
+            current = next;
+        }
+
+        setRoots(roots, resolved, edges);
+        List<Dependency> result = new ArrayList<>(resolved.values());
+        if (cacheable && complete) {
+            writeCache(result, cacheFile);
+        }
+        return result;
+    }
+
+    /**
+     * Walks the dependency graph from each root and records the root on every dependency it reaches.
+     */
+    private static void setRoots(List<Dependency> roots, Map<String, Dependency> resolved, Map<String, Set<String>> edges) {
+        Map<String, Set<String>> result = new HashMap<>();
+        for (Dependency root : roots) {
+            String rootKey = getKey(root.getGroupId(), root.getArtifactId());
+            Set<String> visited = new HashSet<>();
+            Deque<String> queue = new ArrayDeque<>();
+            queue.add(rootKey);
+            while (!queue.isEmpty()) {
+                String key = queue.poll();
+                if (!visited.add(key) || !resolved.containsKey(key)) {
+                    continue;
+                }
+                result.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(rootKey);
+                queue.addAll(edges.getOrDefault(key, Collections.emptySet()));
+            }
+        }
+        for (Map.Entry<String, Dependency> entry : resolved.entrySet()) {
+            entry.getValue().setRoots(result.getOrDefault(entry.getKey(), Collections.emptySet()));
+        }
+    }
+
+    private List<Dependency> readCache(List<Dependency> roots, File cacheFile) {
+        try {
+            Map<String, Dependency> rootMap = roots.stream().collect(Collectors.toMap(Dependency::toString, dependency -> dependency, (a, b) -> a));
+            List<Dependency> result = new ArrayList<>();
+            for (String line : Files.readAllLines(cacheFile.toPath(), StandardCharsets.UTF_8)) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                // 每行为依赖及其来源依赖，旧格式的缓存重新解析
+                String[] ary = line.split("\t", -1);
+                if (ary.length != 2) {
+                    throw new IllegalArgumentException("Outdated cache line " + line);
+                }
+                Dependency root = rootMap.get(ary[0]);
+                Dependency dependency = root != null ? root : new Dependency(ary[0]);
+                dependency.setRoots(ary[1].isEmpty() ? Collections.emptySet() : new LinkedHashSet<>(Arrays.asList(ary[1].split(","))));
+                result.add(dependency);
+            }
+            return result;
+        } catch (IOException | IllegalArgumentException e) {
+            cacheFile.delete();
+            return null;
+        }
+    }
+
+    private void writeCache(List<Dependency> dependencies, File cacheFile) {
+        try {
+            cacheFolder.mkdirs();
+            File tempFile = new File(cacheFolder, cacheFile.getName() + ".tmp");
+            Files.write(tempFile.toPath(), dependencies.stream()
+                    .map(dependency -> dependency + "\t" + String.join(",", dependency.getRoots()))
+                    .collect(Collectors.toList()), StandardCharsets.UTF_8);
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warning(String.format("Failed to cache the resolved dependencies\n%s", ExceptionUtil.stackTraceToString(e)));
+        }
+    }
+
+    private Model getModel(List<String> repositoryList, Dependency dependency) {
+        String version = dependency.getVersion();
+        if (dependency.isDynamicVersion()) {
+            version = downloader.resolveVersion(repositoryList, dependency);
+            if (version == null) {
+                return null;
+            }
+        }
+        return getModel(repositoryList, dependency.getGroupId(), dependency.getArtifactId(), version, 0);
+    }
+
+    /**
+     * Builds the effective model of a POM, merging in its parents and imported BOMs.
+     */
+    private Model getModel(List<String> repositoryList, String groupId, String artifactId, String version, int depth) {
+        String key = getKey(groupId, artifactId) + ":" + version;
+        Model cached = modelCache.get(key);
+        if (cached != null || depth > MAX_PARENT_DEPTH) {
+            return cached;
+        }
+        Element project = fetchPom(repositoryList, groupId, artifactId, version);
+        if (project == null) {
+            return null;
+        }
+
+        Model model = new Model();
+        Element parent = getChild(project, "parent");
+        if (parent != null) {
+            Model parentModel = getModel(repositoryList, getText(parent, "groupId"), getText(parent, "artifactId"), getText(parent, "version"), depth + 1);
+            if (parentModel == null) {
+                return null;
+            }
+            model.properties.putAll(parentModel.properties);
+            model.managedDependencies.putAll(parentModel.managedDependencies);
+            model.dependencies.addAll(parentModel.dependencies);
+            model.properties.put("project.parent.version", getText(parent, "version"));
+        }
+        model.properties.put("project.groupId", groupId);
+        model.properties.put("project.artifactId", artifactId);
+        model.properties.put("project.version", version);
+        model.properties.put("pom.groupId", groupId);
+        model.properties.put("pom.version", version);
+        Element properties = getChild(project, "properties");
+        if (properties != null) {
+            for (Element property : getChildren(properties, null)) {
+                model.properties.put(property.getTagName(), property.getTextContent().trim());
+            }
+        }
+
+        Element dependencyManagement = getChild(project, "dependencyManagement");
+        Element managedDependencies = dependencyManagement == null ? null : getChild(dependencyManagement, "dependencies");
+        if (managedDependencies != null) {
+            for (Element element : getChildren(managedDependencies, "dependency")) {
+                PomDependency managed = new PomDependency(element, model.properties);
+                if ("import".equals(managed.scope) && "pom".equals(managed.type)) {
+                    Model imported = getModel(repositoryList, managed.groupId, managed.artifactId, managed.version, depth + 1);
+                    if (imported != null) {
+                        imported.managedDependencies.forEach(model.managedDependencies::putIfAbsent);
+                    }
+                    continue;
+                }
+                model.managedDependencies.put(getKey(managed.groupId, managed.artifactId), managed);
+            }
+        }
+
+        Element dependencies = getChild(project, "dependencies");
+        if (dependencies != null) {
+            for (Element element : getChildren(dependencies, "dependency")) {
+                PomDependency pomDependency = new PomDependency(element, model.properties);
+                PomDependency managed = model.managedDependencies.get(getKey(pomDependency.groupId, pomDependency.artifactId));
+                if (managed != null && pomDependency.scope == null) {
+                    pomDependency.scope = managed.scope;
+                }
+                if (pomDependency.scope == null) {
+                    pomDependency.scope = "compile";
+                }
+                model.dependencies.add(pomDependency);
+            }
+        }
+        modelCache.put(key, model);
+        return model;
+    }
+
+    private Element fetchPom(List<String> repositoryList, String groupId, String artifactId, String version) {
+        for (String repository : repositoryList) {
+            repository = repository.endsWith("/") ? repository : repository + "/";
+            String url = String.format("%s%s/%s/%s/%s-%s.pom", repository, groupId.replace(".", "/"), artifactId, version, artifactId, version);
+            try (TransportResponse response = downloader.getRepositoryFile(url)) {
+                if (!response.isSuccessful()) {
+                    continue;
+                }
+                Document document = DOCUMENT_BUILDER.get().parse(response.getBody());
+                return document.getDocumentElement();
+            } catch (Exception e) {
+                logger.warning(String.format("Failed to read %s\n%s", url, ExceptionUtil.stackTraceToString(e)));
+            }
+        }
+        return null;
+    }
+
+    private static String getKey(String groupId, String artifactId) {
+        return groupId + ":" + artifactId;
+    }
+
+    private static Element getChild(Element element, String name) {
+        List<Element> children = getChildren(element, name);
+        return children.isEmpty() ? null : children.get(0);
+    }
+
+    private static List<Element> getChildren(Element element, String name) {
+        List<Element> children = new ArrayList<>();
+        NodeList nodeList = element.getChildNodes();
+        for (int i = 0; i < nodeList.getLength(); i++) {
+            Node node = nodeList.item(i);
+            if (node instanceof Element && (name == null || name.equals(((Element) node).getTagName()))) {
+                children.add((Element) node);
+            }
+        }
+        return children;
+    }
+
+    private static String getText(Element element, String name) {
+        Element child = getChild(element, name);
+        return child == null ? null : child.getTextContent().trim();
+    }
+
+    private static String interpolate(String value, Map<String, String> properties) {
+        if (value == null) {
+            return null;
+        }
+        // 属性值本身可能引用其他属性，限制替换次数以防循环引用
+        for (int i = 0; i < 10 && value.contains("${"); i++) {
+            Matcher matcher = PROPERTY_PATTERN.matcher(value);
+            StringBuffer buffer = new StringBuffer();
+            boolean changed = false;
+            while (matcher.find()) {
+                String replacement = properties.get(matcher.group(1));
+                changed |= replacement != null;
+                matcher.appendReplacement(buffer, Matcher.quoteReplacement(replacement != null ? replacement : matcher.group()));
+            }
+            matcher.appendTail(buffer);
+            value = buffer.toString();
+            if (!changed) {
+                break;
+            }
+        }
+        return value;
+    }
+
+    private static class Model {
+        private final Map<String, String> properties = new HashMap<>();
+        private final Map<String, PomDependency> managedDependencies = new LinkedHashMap<>();
+        private final List<PomDependency> dependencies = new ArrayList<>();
+    }
+
+    private static class PomDependency {
+        private final String groupId;
+        private final String artifactId;
+        private final String version;
+        private final String type;
+        private final String classifier;
+        private final boolean optional;
+        private final Set<String> exclusions = new HashSet<>();
+        private String scope;
+
+        private PomDependency(Element element, Map<String, String> properties) {
+            groupId = interpolate(getText(element, "groupId"), properties);
+            artifactId = interpolate(getText(element, "artifactId"), properties);
+            version = interpolate(getText(element, "version"), properties);
+            String type = interpolate(getText(element, "type"), properties);
+            this.type = type == null ? "jar" : type;
+            classifier = interpolate(getText(element, "classifier"), properties);
+            scope = interpolate(getText(element, "scope"), properties);
+            optional = "true".equals(interpolate(getText(element, "optional"), properties));
+            Element exclusionsElement = getChild(element, "exclusions");
+            if (exclusionsElement != null) {
+                for (Element exclusion : getChildren(exclusionsElement, "exclusion")) {
+                    exclusions.add(getKey(interpolate(getText(exclusion, "groupId"), properties), interpolate(getText(exclusion, "artifactId"), properties)));
+                }
+            }
+        }
+    }
+
+    private static class ResolutionNode {
+        private final Dependency dependency;
+        private final Set<String> exclusions;
+        /**
+         * The managed dependencies of the root this node was reached from, or null if this node is a root.
+         */
+        private final Map<String, PomDependency> management;
+
+        private ResolutionNode(Dependency dependency, Set<String> exclusions, Map<String, PomDependency> management) {
+            this.dependency = dependency;
+            this.exclusions = exclusions;
+            this.management = management;
+        }
+
+        private boolean isExcluded(String groupId, String artifactId) {
+            return exclusions.contains(getKey(groupId, artifactId))
+                    || exclusions.contains(getKey(groupId, "*"))
+                    || exclusions.contains(getKey("*", artifactId))
+                    || exclusions.contains("*:*");
+        }
+    }
+
+    /**
+     * Creates a parser for untrusted POMs, which rejects DOCTYPE declarations and never resolves external entities or XIncludes.
+     */
+    private static DocumentBuilder newDocumentBuilder() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        setFeature(factory, "http://apache.org/xml/features/disallow-doctype-decl", true);
+        setFeature(factory, "http://xml.org/sax/features/external-general-entities", false);
+        setFeature(factory, "http://xml.org/sax/features/external-parameter-entities", false);
+        setFeature(factory, "http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        factory.setXIncludeAware(false);
+        factory.setExpandEntityReferences(false);
+        try {
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            // 解析错误已通过异常记录，不再输出到标准错误流
+            builder.setErrorHandler(new DefaultHandler());
+            return builder;
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void setFeature(DocumentBuilderFactory factory, String feature, boolean value) {
+        try {
+            factory.setFeature(feature, value);
+        } catch (ParserConfigurationException ignored) {
+            // 解析器不支持该特性时，由其余设置保证安全
+        }
+    }
+}
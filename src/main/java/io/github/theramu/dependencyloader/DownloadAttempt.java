@@ -0,0 +1,129 @@
+package io.github.theramu.dependencyloader;
+
+import io.github.theramu.dependencyloader.transport.TransportResponse;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks one transfer of an artifact from one repository.
+ * <p>
+ * Attempts racing for the same artifact share a flag, and only the attempt that claims it first
+ * may move its file into place. The others are cancelled, which aborts their open responses,
+ * and discard their temporary files.
+ *
+ * @author agent
+ * @since 2026/10/17 3:16
+ */
+public class DownloadAttempt {
+
+    @Getter
+    private final Dependency dependency;
+    @Getter
+    private final String repository;
+    @Getter
+    private final File partFile;
+    private final AtomicBoolean finished;
+    private final AtomicLong transferred = new AtomicLong();
+    private final Set<TransportResponse> responses = new HashSet<>();
+    private final long startTime = System.nanoTime();
+    private volatile long firstByteTime;
+    private volatile boolean cancelled;
+
+    protected DownloadAttempt(Dependency dependency, String repository, File partFile, AtomicBoolean finished) {
+        this.dependency = dependency;
+        this.repository = repository;
+        this.partFile = partFile;
+        this.finished = finished;
+    }
+
+    protected DownloadAttempt(Dependency dependency, String repository, File partFile) {
+        this(dependency, repository, partFile, new AtomicBoolean());
+    }
+
+    protected void onTransferred(int bytes) {
+        if (firstByteTime == 0) {
+            firstByteTime = System.nanoTime();
+        }
+        transferred.addAndGet(bytes);
+    }
+
+    protected long getTransferred() {
+        return transferred.get();
+    }
+
+    /**
+     * Returns the time in nanoseconds since the attempt started.
+     */
+    protected long getElapsedTime() {
+        return System.nanoTime() - startTime;
+    }
+
+    /**
+     * Registers a response being read by this attempt, so that cancelling the attempt aborts it.
+     * A response opened after the attempt was cancelled is aborted right away.
+     *
+     * @return a handle that unregisters the response, to be closed before the response itself.
+     */
+    protected synchronized Closeable track(TransportResponse response) {
+        responses.add(response);
+        if (cancelled) {
+            abort(response);
+        }
+        // 注销与中止互斥，避免断开已归还连接池的连接
+        return () -> {
+            synchronized (this) {
+                responses.remove(response);
+            }
+        };
+    }
+
+    protected synchronized void cancel() {
+        cancelled = true;
+        // 仅设置标志无法打断阻塞中的读取，需要断开连接
+        responses.forEach(DownloadAttempt::abort);
+    }
+
+    private static void abort(TransportResponse response) {
+        try {
+            response.abort();
+        } catch (IOException ignored) {
+        }
+    }
+
+    protected boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Marks this attempt as the one that completed the artifact.
+     *
+     * @return false if the attempt was cancelled or another attempt already completed the artifact.
+     */
+    protected boolean claim() {
+        return !cancelled && finished.compareAndSet(false, true);
+    }
+
+    /**
+     * Checks whether the attempt has not delivered its first byte yet or is running below the throughput floor.
+     *
+     * @param minThroughput The minimum throughput in bytes per second, or 0 to only check for the first byte.
+     */
+    protected boolean isStalled(long minThroughput) {
+        if (firstByteTime == 0) {
+            return true;
+        }
+        if (minThroughput <= 0) {
+            return false;
+        }
+        double seconds = Math.max((System.nanoTime() - startTime) / (double) TimeUnit.SECONDS.toNanos(1), 0.001);
+        return transferred.get() / seconds < minThroughput;
+    }
+}
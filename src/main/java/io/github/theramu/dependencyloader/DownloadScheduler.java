@@ -0,0 +1,155 @@
+package io.github.theramu.dependencyloader;
+
+import io.github.theramu.dependencyloader.util.ExceptionUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Runs download tasks in parallel while capping the number of concurrent transfers,
+ * both overall and per repository host.
+ * <p>
+ * A loader keeps a single scheduler, so that the limits hold across concurrent loads.
+ * Without a caller-supplied executor, the scheduler runs the tasks on its own daemon threads, which end when they have been idle for a minute.
+ *
+ * @author agent
+ * @since 2026/10/17 3:04
+ */
+public class DownloadScheduler {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final Logger logger;
+    private final ExecutorService executor;
+    private final ExecutorService suppliedExecutor;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final int maxConcurrentPerHost;
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    protected DownloadScheduler(Logger logger, ExecutorService executor, int maxConcurrent, int maxConcurrentPerHost) {
+        this.logger = logger;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxConcurrentPerHost = Math.max(1, maxConcurrentPerHost);
+        this.permits = new Semaphore(this.maxConcurrent);
+        this.suppliedExecutor = executor;
+        if (executor != null) {
+            this.executor = executor;
+        } else {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(this.maxConcurrent, this.maxConcurrent, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "DependencyLoader-Download-" + THREAD_COUNTER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            // 空闲线程自动结束，调度器无需显式关闭
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+        }
+    }
+
+    /**
+     * Checks whether the scheduler was created with the given executor and limits.
+     */
+    protected boolean isConfiguredWith(ExecutorService executor, int maxConcurrent, int maxConcurrentPerHost) {
+        return suppliedExecutor == executor && this.maxConcurrent == Math.max(1, maxConcurrent) && this.maxConcurrentPerHost == Math.max(1, maxConcurrentPerHost);
+    }
+
+    /**
+     * Runs the task for every element and blocks until all of them have finished.
+     */
+    protected <T> void runAll(@NotNull List<T> elements, @NotNull Consumer<T> task) {
+        List<Future<?>> futures = new ArrayList<>(elements.size());
+        for (T element : elements) {
+            futures.add(executor.submit(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    task.accept(element);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (InterruptedException e) {
+                futures.forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                logger.severe(String.format("Failed to download %s\n%s", elements.get(i), ExceptionUtil.stackTraceToString(e.getCause())));
+            }
+        }
+    }
+
+    /**
+     * Runs the callable while holding one of the permits of the host the url points to.
+     */
+    protected <V> V withHostPermit(@NotNull String url, @NotNull Supplier<V> supplier) {
+        Semaphore semaphore = getHostPermits(url);
+        semaphore.acquireUninterruptibly();
+        try {
+            return supplier.get();
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    /**
+     * Takes up to count more permits of the host the url points to without waiting,
+     * for a task that already holds one and could use further connections.
+     *
+     * @return the number of permits taken, to be given back with {@link #releaseHostPermits(String, int)}.
+     */
+    protected int tryAcquireHostPermits(@NotNull String url, int count) {
+        Semaphore semaphore = getHostPermits(url);
+        int acquired = 0;
+        while (acquired < count && semaphore.tryAcquire()) {
+            acquired++;
+        }
+        return acquired;
+    }
+
+    protected void releaseHostPermits(@NotNull String url, int count) {
+        if (count > 0) {
+            getHostPermits(url).release(count);
+        }
+    }
+
+    /**
+     * Stops the threads of the scheduler once their tasks have finished, unless the executor was supplied by the caller.
+     */
+    protected void shutdown() {
+        if (suppliedExecutor == null) {
+            executor.shutdown();
+        }
+    }
+
+    private Semaphore getHostPermits(String url) {
+        return hostPermits.computeIfAbsent(getHost(url), host -> new Semaphore(maxConcurrentPerHost));
+    }
+
+    private static String getHost(String url) {
+        try {
+            return new URL(url).getHost();
+        } catch (MalformedURLException e) {
+            return url;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package io.github.theramu.dependencyloader;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.security.CodeSigner;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * A {@link DependencyClassLoader} that indexes the packages of its jars when they are added,
+ * and sends each class or resource lookup straight to the jars containing its package.
+ * <p>
+ * A plain {@code URLClassLoader} tries every jar in turn, so that with many jars a lookup for a missing class
+ * or resource gets expensive. Here such a lookup costs a single map query.
+ * <p>
+ * Lookups in the packages of multi-release jars go through the {@code URLClassLoader},
+ * which picks the entries matching the running Java version.
+ *
+ * @author agent
+ * @since 2026/10/17 3:51
+ */
+public class IndexedDependencyClassLoader extends DependencyClassLoader {
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    private final PackageIndex packageIndex;
+    private final Map<String, List<IndexedJar>> packages = new ConcurrentHashMap<>();
+    private final List<IndexedJar> jars = new CopyOnWriteArrayList<>();
+    private final Set<String> multiReleasePackages = ConcurrentHashMap.newKeySet();
+
+    protected IndexedDependencyClassLoader(ClassLoader parent, PackageIndex packageIndex) {
+        super(parent);
+        this.packageIndex = packageIndex;
+    }
+
+    @Override
+    protected boolean addJarFile(File file) throws IOException {
+        if (!super.addJarFile(file)) {
+            return false;
+        }
+        IndexedJar jar = new IndexedJar(file);
+        boolean multiRelease = packageIndex.isMultiRelease(file);
+        for (String name : packageIndex.getPackages(file)) {
+            packages.computeIfAbsent(name, key -> new CopyOnWriteArrayList<>()).add(jar);
+            if (multiRelease) {
+                multiReleasePackages.add(name);
+            }
+        }
+        jars.add(jar);
+        return true;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        String path = name.replace('.', '/') + ".class";
+        if (isMultiRelease(path)) {
+            return super.findClass(name);
+        }
+        for (IndexedJar jar : getJars(path)) {
+            try {
+                JarFile jarFile = jar.getJarFile();
+                JarEntry entry = jarFile.getJarEntry(path);
+                if (entry != null) {
+                    return defineClass(name, jar, jarFile, entry);
+                }
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+        throw new ClassNotFoundException(name);
+    }
+
+    @Override
+    public URL findResource(String name) {
+        if (isMultiRelease(name)) {
+            return super.findResource(name);
+        }
+        for (IndexedJar jar : getJars(name)) {
+            URL url = jar.getResource(name);
+            if (url != null) {
+                return url;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Enumeration<URL> findResources(String name) throws IOException {
+        if (isMultiRelease(name)) {
+            return super.findResources(name);
+        }
+        List<URL> urls = new ArrayList<>();
+        for (IndexedJar jar : getJars(name)) {
+            URL url = jar.getResource(name);
+            if (url != null) {
+                urls.add(url);
+            }
+        }
+        return Collections.enumeration(urls);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            for (IndexedJar jar : jars) {
+                jar.close();
+            }
+        }
+    }
+
+    private List<IndexedJar> getJars(String path) {
+        List<IndexedJar> result = packages.get(getPackagePath(path));
+        return result == null ? Collections.emptyList() : result;
+    }
+
+    private boolean isMultiRelease(String path) {
+        return !multiReleasePackages.isEmpty() && multiReleasePackages.contains(getPackagePath(path));
+    }
+
+    private static String getPackagePath(String path) {
+        int index = path.lastIndexOf('/');
+        return index == -1 ? "" : path.substring(0, index);
+    }
+
+    private Class<?> defineClass(String name, IndexedJar jar, JarFile jarFile, JarEntry entry) throws IOException {
+        byte[] bytes;
+        try (InputStream input = jarFile.getInputStream(entry)) {
+            bytes = readAllBytes(input, entry.getSize());
+        }
+        int index = name.lastIndexOf('.');
+        if (index != -1) {
+            definePackageIfAbsent(name.substring(0, index), jarFile.getManifest(), jar.url);
+        }
+        // 读取完整内容后才能获得签名信息
+        CodeSigner[] signers = entry.getCodeSigners();
+        return defineClass(name, bytes, 0, bytes.length, new CodeSource(jar.url, signers));
+    }
+
+    @SuppressWarnings("deprecation")
+    private void definePackageIfAbsent(String name, Manifest manifest, URL url) {
+        if (getPackage(name) != null) {
+            return;
+        }
+        try {
+            if (manifest != null) {
+                definePackage(name, manifest, url);
+            } else {
+                definePackage(name, null, null, null, null, null, null, null);
+            }
+        } catch (IllegalArgumentException ignored) {
+            // 其他线程已定义该包
+        }
+    }
+
+    private static byte[] readAllBytes(InputStream input, long size) throws IOException {
+        byte[] buffer = new byte[size > 0 ? (int) size : 8192];
+        int length = 0;
+        int bytesRead;
+        while ((bytesRead = input.read(buffer, length, buffer.length - length)) != -1) {
+            length += bytesRead;
+            if (length == buffer.length) {
+                int next = input.read();
+                if (next == -1) {
+                    break;
+                }
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                buffer[length++] = (byte) next;
+            }
+        }
+        return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * A jar of the loader, opened on its first lookup.
+     */
+    private static class IndexedJar {
+        private final File file;
+        private final URL url;
+        private volatile JarFile jarFile;
+
+        private IndexedJar(@NotNull File file) throws MalformedURLException {
+            this.file = file;
+            this.url = file.toURI().toURL();
+        }
+
+        private JarFile getJarFile() throws IOException {
+            if (jarFile == null) {
+                synchronized (this) {
+                    if (jarFile == null) {
+                        jarFile = new JarFile(file);
+                    }
+                }
+            }
+            return jarFile;
+        }
+
+        private URL getResource(String name) {
+            try {
+                if (getJarFile().getEntry(name) == null) {
+                    return null;
+                }
+                return new URL("jar:" + url + "!/" + name);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        private synchronized void close() throws IOException {
+            if (jarFile != null) {
+                jarFile.close();
+                jarFile = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package io.github.theramu.dependencyloader;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The dependencies registered with {@link DependencyLoader#registerLazyDependency(String, String[], String[])},
+ * keyed by the packages they provide.
+ * <p>
+ * A dependency is loaded into the {@link DependencyClassLoader} the first time a class in one of its packages,
+ * or their subpackages, is not found there, or a resource in them or the service file of a service in them is looked up.
+ * Concurrent lookups share a single load. The caches, the repository statistics and the lock file are saved afterwards
+ * in the background, so that the lookup waiting for the load does not wait for these writes as well.
+ * After a failed load, lookups fail without touching the network until {@link DependencyLoader#getLazyRetryDelay()} has passed.
+ *
+ * @author agent
+ * @since 2026/10/17 3:44
+ */
+public class LazyDependencies {
+
+    private static final String SERVICES_FOLDER = "META-INF/services/";
+
+    private final DependencyLoader dependencyLoader;
+    private final Map<String, List<LazyDependency>> packages = new ConcurrentHashMap<>();
+    private volatile ExecutorService executor;
+
+    protected LazyDependencies(DependencyLoader dependencyLoader) {
+        this.dependencyLoader = dependencyLoader;
+    }
+
+    protected void register(@NotNull String dependency, @NotNull String[] packageNames, String[] repositories) {
+        LazyDependency lazyDependency = new LazyDependency(dependency, packageNames, repositories);
+        for (String packageName : packageNames) {
+            packages.merge(packageName, Collections.singletonList(lazyDependency), (existing, added) -> {
+                List<LazyDependency> list = new ArrayList<>(existing);
+                list.addAll(added);
+                return list;
+            });
+        }
+        if (dependencyLoader.isLazyPrefetch()) {
+            // 后台预取，首次使用时只需注入
+            getExecutor().execute(() -> {
+                if (lazyDependency.loading.get() == null) {
+                    dependencyLoader.prefetchDependencies(new String[]{dependency}, repositories);
+                }
+            });
+        }
+    }
+
+    /**
+     * Loads the lazy dependencies providing the class, waiting for a load already started by another thread.
+     *
+     * @return false if no lazy dependency provides the class or they failed to load.
+     */
+    protected boolean load(@NotNull String className) {
+        int index = className.lastIndexOf('.');
+        return index > 0 && loadPackage(className.substring(0, index));
+    }
+
+    /**
+     * Loads the lazy dependencies providing the resource, or the service if the resource is a service file in {@code META-INF/services}.
+     *
+     * @return false if no lazy dependency provides the resource or they failed to load.
+     */
+    protected boolean loadResource(@NotNull String name) {
+        if (name.startsWith(SERVICES_FOLDER)) {
+            return load(name.substring(SERVICES_FOLDER.length()));
+        }
+        int index = name.lastIndexOf('/');
+        return index > 0 && loadPackage(name.substring(0, index).replace('/', '.'));
+    }
+
+    private boolean loadPackage(String packageName) {
+        if (packages.isEmpty()) {
+            return false;
+        }
+        List<LazyDependency> lazyDependencyList;
+        String name = packageName;
+        int index;
+        while ((lazyDependencyList = packages.get(name)) == null && (index = name.lastIndexOf('.')) > 0) {
+            name = name.substring(0, index);
+        }
+        if (lazyDependencyList == null) {
+            return false;
+        }
+        boolean loaded = false;
+        for (LazyDependency lazyDependency : lazyDependencyList) {
+            loaded |= load(lazyDependency);
+        }
+        return loaded;
+    }
+
+    private boolean load(LazyDependency lazyDependency) {
+        if (System.currentTimeMillis() < lazyDependency.retryAt) {
+            return false;
+        }
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        if (!lazyDependency.loading.compareAndSet(null, future)) {
+            CompletableFuture<Boolean> existing = lazyDependency.loading.get();
+            if (existing != null) {
+                return existing.join();
+            }
+            return load(lazyDependency);
+        }
+        boolean loaded = false;
+        try {
+            LoadResult result = dependencyLoader.loadWithoutSaving(new String[]{lazyDependency.dependency}, lazyDependency.repositories);
+            loaded = result.isSuccessful();
+            // 写入缓存与锁文件不必阻塞正在等待该类的线程
+            getExecutor().execute(() -> dependencyLoader.save(result));
+        } finally {
+            if (loaded) {
+                // 加载后不再拦截这些包中的类
+                for (String packageName : lazyDependency.packageNames) {
+                    packages.computeIfPresent(packageName, (key, existing) -> {
+                        List<LazyDependency> list = new ArrayList<>(existing);
+                        list.remove(lazyDependency);
+                        return list.isEmpty() ? null : list;
+                    });
+                }
+            } else {
+                // 加载失败后在一段时间内不再重试，避免每次查找都访问网络
+                lazyDependency.retryAt = System.currentTimeMillis() + dependencyLoader.getLazyRetryDelay();
+                lazyDependency.loading.set(null);
+            }
+            future.complete(loaded);
+        }
+        return loaded;
+    }
+
+    private ExecutorService getExecutor() {
+        if (executor == null) {
+            synchronized (this) {
+                if (executor == null) {
+                    executor = Executors.newSingleThreadExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "DependencyLoader-Lazy");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return executor;
+    }
+
+    private static class LazyDependency {
+        private final String dependency;
+        private final String[] packageNames;
+        private final String[] repositories;
+        private final AtomicReference<CompletableFuture<Boolean>> loading = new AtomicReference<>();
+        private volatile long retryAt;
+
+        private LazyDependency(String dependency, String[] packageNames, String[] repositories) {
+            this.dependency = dependency;
+            this.packageNames = packageNames;
+            this.repositories = repositories;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package io.github.theramu.dependencyloader;
+
+import io.github.theramu.dependencyloader.util.ExceptionUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Records the size, modification time and SHA-1 of every verified jar in the libraries folder,
+ * so that unchanged jars don't have to be opened again on the next startup.
+ *
+ * @author agent
+ * @since 2026/10/17 3:06
+ */
+public class LibraryManifest {
+
+    public static final String FILE_NAME = ".manifest";
+
+    private final Logger logger;
+    private final File librariesFolder;
+    private final File manifestFile;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<String> removed = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+    private volatile boolean dirty;
+
+    protected LibraryManifest(Logger logger, File librariesFolder) {
+        this.logger = logger;
+        this.librariesFolder = librariesFolder;
+        this.manifestFile = new File(librariesFolder, FILE_NAME);
+    }
+
+    /**
+     * Checks whether the jar still has the size and modification time it had when it was verified.
+     */
+    protected boolean matches(@NotNull File file) {
+        Entry entry = getEntry(file);
+        return entry != null && entry.matches(file);
+    }
+
+    /**
+     * Returns the recorded SHA-1 of the jar, or null if the jar is unknown or has changed since it was recorded.
+     */
+    protected String getSha1(@NotNull File file) {
+        Entry entry = getEntry(file);
+        return entry != null && entry.matches(file) ? entry.sha1 : null;
+    }
+
+    protected void record(@NotNull File file, @NotNull String sha1) {
+        load();
+        String key = getKey(file);
+        entries.put(key, new Entry(file.length(), file.lastModified(), sha1));
+        removed.remove(key);
+        dirty = true;
+    }
+
+    protected void remove(@NotNull File file) {
+        load();
+        String key = getKey(file);
+        removed.add(key);
+        if (entries.remove(key) != null) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Writes the manifest, merging in the entries other processes sharing the libraries folder have saved in the meantime.
+     */
+    protected synchronized void save() {
+        if (!dirty || !librariesFolder.isDirectory()) {
+            return;
+        }
+        dirty = false;
+        File tempFile = new File(librariesFolder, FILE_NAME + ".tmp");
+        try (ArtifactLock ignored = ArtifactLock.acquire(manifestFile)) {
+            Map<String, Entry> saved = new HashMap<>();
+            read(saved);
+            saved.forEach((key, entry) -> {
+                if (!removed.contains(key)) {
+                    entries.putIfAbsent(key, entry);
+                }
+            });
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    Entry value = entry.getValue();
+                    writer.write(entry.getKey() + "\t" + value.size + "\t" + value.lastModified + "\t" + value.sha1);
+                    writer.newLine();
+                }
+            }
+            try {
+                Files.move(tempFile.toPath(), manifestFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            dirty = true;
+            logger.warning(String.format("Failed to save library manifest %s\n%s", manifestFile, ExceptionUtil.stackTraceToString(e)));
+        }
+    }
+
+    private Entry getEntry(File file) {
+        load();
+        return entries.get(getKey(file));
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            read(entries);
+            loaded = true;
+        }
+    }
+
+    private void read(Map<String, Entry> target) {
+        if (!manifestFile.isFile()) {
+            return;
+        }
+        Map<String, Entry> result = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] ary = line.split("\t");
+                if (ary.length != 4) {
+                    continue;
+                }
+                try {
+                    result.put(ary[0], new Entry(Long.parseLong(ary[1]), Long.parseLong(ary[2]), ary[3]));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        } catch (IOException e) {
+            // 清单损坏时当作空清单处理，所有文件将重新校验
+            return;
+        }
+        target.putAll(result);
+    }
+
+    private String getKey(File file) {
+        String path = librariesFolder.toPath().toAbsolutePath().relativize(file.toPath().toAbsolutePath()).toString();
+        return path.replace(File.separatorChar, '/');
+    }
+
+    private static class Entry {
+        private final long size;
+        private final long lastModified;
+        private final String sha1;
+
+        private Entry(long size, long lastModified, String sha1) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.sha1 = sha1;
+        }
+
+        private boolean matches(File file) {
+            return size == file.length() && lastModified == file.lastModified();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.theramu.dependencyloader;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The outcome of loading a batch of dependencies, with the file, origin, size and timings of each of them.
+ *
+ * @author agent
+ * @since 2026/10/17 3:21
+ */
+@Getter
+public class LoadResult {
+
+    /**
+     * Every dependency of the batch, including the transitive ones, in the order they were injected.
+     */
+    private final List<Dependency> dependencies;
+
+    /**
+     * The total time in milliseconds the load took.
+     */
+    private final long duration;
+
+    protected LoadResult(List<Dependency> dependencies, long duration) {
+        this.dependencies = Collections.unmodifiableList(dependencies);
+        this.duration = duration;
+    }
+
+    /**
+     * Checks whether every dependency was found and injected.
+     */
+    public boolean isSuccessful() {
+        return dependencies.stream().allMatch(Dependency::isLoaded);
+    }
+
+    /**
+     * Returns the dependencies that could not be found or injected.
+     */
+    public List<Dependency> getFailedDependencies() {
+        return dependencies.stream().filter(dependency -> !dependency.isLoaded()).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the total number of bytes downloaded for the batch.
+     */
+    public long getDownloadedBytes() {
+        return dependencies.stream().mapToLong(Dependency::getDownloadedBytes).sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LoadResult{dependencies=%d, failed=%d, downloadedBytes=%d, duration=%dms}",
+                dependencies.size(), getFailedDependencies().size(), getDownloadedBytes(), duration);
+    }
+}
@@ -0,0 +1,202 @@
+package io.github.theramu.dependencyloader;
+
+import io.github.theramu.dependencyloader.util.ExceptionUtil;
+import io.github.theramu.dependencyloader.version.ComparableVersion;
+import io.github.theramu.dependencyloader.version.VersionRange;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * An in-memory index of the jars in the libraries folder, mapping each artifact to its versions in Maven order.
+ * <p>
+ * The folder is scanned once, on the first lookup. Lookups then take a single sorted-map query
+ * and always return the highest version that satisfies the requested version, "latest", "release" or range.
+ * An exact version only matches the folder of the same name, even if Maven orders e.g. {@code 1} and {@code 1.0} as equal.
+ * For compatibility, a version that is neither a plain version, a keyword nor a valid range is matched as a regular expression
+ * against the version folder names, which is deprecated.
+ *
+ * @author agent
+ * @since 2026/10/17 3:14
+ */
+public class LocalRepositoryIndex {
+
+    private final Logger logger;
+    private final File librariesFolder;
+    private static final Pattern PLAIN_VERSION = Pattern.compile("[\\w.\\-]+");
+
+    private final Map<String, Versions> artifacts = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    protected LocalRepositoryIndex(Logger logger, File librariesFolder) {
+        this.logger = logger;
+        this.librariesFolder = librariesFolder;
+    }
+
+    /**
+     * Finds the jar of the highest local version matching the dependency.
+     *
+     * @return the jar, or null if no local version matches.
+     */
+    protected File find(@NotNull Dependency dependency) {
+        load();
+        Versions versions = artifacts.get(getKey(dependency.getGroupId(), dependency.getArtifactId()));
+        if (versions == null || versions.files.isEmpty()) {
+            return null;
+        }
+        String version = dependency.getVersion();
+        Map.Entry<ComparableVersion, File> entry;
+        if (version.equals("latest")) {
+            entry = versions.ordered.lastEntry();
+        } else if (version.equals("release")) {
+            entry = versions.ordered.lastEntry();
+            while (entry != null && entry.getKey().isSnapshot()) {
+                entry = versions.ordered.lowerEntry(entry.getKey());
+            }
+        } else if (VersionRange.isRange(version)) {
+            try {
+                entry = VersionRange.parse(version).matchHighest(versions.ordered);
+            } catch (IllegalArgumentException e) {
+                return versions.findPattern(version);
+            }
+        } else {
+            File file = versions.files.get(version);
+            return file != null || PLAIN_VERSION.matcher(version).matches() ? file : versions.findPattern(version);
+        }
+        return entry == null ? null : entry.getValue();
+    }
+
+    protected void add(@NotNull String groupId, @NotNull String artifactId, @NotNull String version, @NotNull File file) {
+        artifacts.computeIfAbsent(getKey(groupId, artifactId), key -> new Versions()).put(version, file);
+    }
+
+    protected void remove(@NotNull String groupId, @NotNull String artifactId, @NotNull String version) {
+        Versions versions = artifacts.get(getKey(groupId, artifactId));
+        if (versions != null) {
+            versions.remove(version);
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            if (librariesFolder.isDirectory()) {
+                scan();
+            }
+            loaded = true;
+        }
+    }
+
+    private void scan() {
+        Path root = librariesFolder.toPath();
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    // 跳过清单、缓存等隐藏目录
+                    return !dir.equals(root) && dir.getFileName().toString().startsWith(".") ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    // 目录结构为 groupId/artifactId/version/artifactId-version.jar
+                    Path relative = root.relativize(file);
+                    int count = relative.getNameCount();
+                    if (count < 4) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    String version = relative.getName(count - 2).toString();
+                    String artifactId = relative.getName(count - 3).toString();
+                    if (!relative.getFileName().toString().equals(artifactId + "-" + version + ".jar")) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    String groupId = relative.subpath(0, count - 3).toString().replace(File.separatorChar, '.');
+                    add(groupId, artifactId, version, file.toFile());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            logger.warning(String.format("Failed to index %s\n%s", librariesFolder, ExceptionUtil.stackTraceToString(e)));
+        }
+    }
+
+    private static String getKey(String groupId, String artifactId) {
+        return groupId + ":" + artifactId;
+    }
+
+    /**
+     * The local versions of an artifact, keyed by the literal folder name for exact lookups,
+     * and in Maven order for "latest", "release" and ranges.
+     */
+    private static class Versions {
+        private final Map<String, File> files = new ConcurrentHashMap<>();
+        private final NavigableMap<ComparableVersion, File> ordered = new ConcurrentSkipListMap<>();
+
+        private synchronized void put(String version, File file) {
+            files.put(version, file);
+            ordered.put(new ComparableVersion(version), file);
+        }
+
+        private synchronized void remove(String version) {
+            if (files.remove(version) == null) {
+                return;
+            }
+            ComparableVersion key = new ComparableVersion(version);
+            ordered.remove(key);
+            // 其他目录名可能与之顺序相同，如 "1" 与 "1.0"
+            for (Map.Entry<String, File> entry : files.entrySet()) {
+                if (new ComparableVersion(entry.getKey()).equals(key)) {
+                    ordered.put(key, entry.getValue());
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Finds the highest version whose folder name matches the regular expression, as versions were matched before ranges were supported.
+         */
+        private File findPattern(String regex) {
+            Pattern pattern;
+            try {
+                pattern = Pattern.compile(regex);
+            } catch (PatternSyntaxException e) {
+                return null;
+            }
+            Map.Entry<ComparableVersion, File> best = null;
+            for (Map.Entry<String, File> entry : files.entrySet()) {
+                if (!pattern.matcher(entry.getKey()).matches()) {
+                    continue;
+                }
+                ComparableVersion version = new ComparableVersion(entry.getKey());
+                if (best == null || version.compareTo(best.getKey()) > 0) {
+                    best = new AbstractMap.SimpleEntry<>(version, entry.getValue());
+                }
+            }
+            return best == null ? null : best.getValue();
+        }
+    }
+}
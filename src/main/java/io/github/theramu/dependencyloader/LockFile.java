@@ -0,0 +1,134 @@
+package io.github.theramu.dependencyloader;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pins the exact version, repository and SHA-1 of every loaded artifact, so that later startups can load them
+ * without resolving versions, probing repositories or scanning the libraries folder.
+ * <p>
+ * Each line holds {@code groupId:artifactId:version}, the repository, the SHA-1 and the requested dependencies
+ * ({@code groupId:artifactId}) that pulled the artifact in, separated by tabs, in load order.
+ *
+ * @author agent
+ * @since 2026/10/17 3:51
+ */
+public class LockFile {
+
+    private static final String HEADER = "# Generated by DependencyLoader, do not edit.";
+
+    private final File file;
+
+    protected LockFile(@NotNull File file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads the entries, keyed by {@code groupId:artifactId}, in load order.
+     */
+    protected Map<String, Entry> read() throws IOException {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] ary = line.split("\t", -1);
+                String[] coordinates = ary[0].split(":");
+                if (ary.length != 4 || coordinates.length != 3) {
+                    throw new IOException(String.format("Malformed line in %s: %s", file, line));
+                }
+                Set<String> roots = new LinkedHashSet<>(Arrays.asList(ary[3].split(",")));
+                Entry entry = new Entry(coordinates[0], coordinates[1], coordinates[2], ary[1].isEmpty() ? null : ary[1], ary[2], roots);
+                entries.put(entry.getKey(), entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Merges the entries into the file, replacing the entries of the same artifacts and keeping the others.
+     * An entry without a repository, e.g. for an artifact found in the libraries folder, keeps the repository recorded before.
+     * The file is left untouched if the merge does not change it.
+     */
+    protected void write(@NotNull Collection<Entry> updates) throws IOException {
+        try (ArtifactLock ignored = ArtifactLock.acquire(file)) {
+            Map<String, Entry> entries = file.isFile() ? read() : new LinkedHashMap<>();
+            for (Entry update : updates) {
+                Entry existing = entries.remove(update.getKey());
+                if (existing != null) {
+                    update.roots.addAll(existing.roots);
+                    if (update.repository == null) {
+                        update.repository = existing.repository;
+                    }
+                }
+                entries.put(update.getKey(), update);
+            }
+
+            List<String> lines = new ArrayList<>(entries.size() + 1);
+            lines.add(HEADER);
+            for (Entry entry : entries.values()) {
+                lines.add(String.join("\t",
+                        entry.getKey() + ":" + entry.version,
+                        entry.repository == null ? "" : entry.repository,
+                        entry.sha1,
+                        String.join(",", entry.roots)
+                ));
+            }
+            // 内容未变化时不重写文件，避免每次启动都修改受版本控制的锁定文件
+            if (file.isFile() && lines.equals(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8))) {
+                return;
+            }
+
+            File parent = file.getAbsoluteFile().getParentFile();
+            parent.mkdirs();
+            File tempFile = new File(parent, file.getName() + ".tmp");
+            Files.write(tempFile.toPath(), lines, StandardCharsets.UTF_8);
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    @Getter
+    public static class Entry {
+        private final String groupId;
+        private final String artifactId;
+        private final String version;
+        private String repository;
+        private final String sha1;
+        private final Set<String> roots;
+
+        protected Entry(String groupId, String artifactId, String version, String repository, String sha1, Set<String> roots) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.version = version;
+            this.repository = repository;
+            this.sha1 = sha1;
+            this.roots = roots;
+        }
+
+        public String getKey() {
+            return groupId + ":" + artifactId;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package io.github.theramu.dependencyloader;
+
+import io.github.theramu.dependencyloader.transport.TransportResponse;
+import io.github.theramu.dependencyloader.util.ExceptionUtil;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Caches the versioning section of {@code maven-metadata.xml} per repository and artifact,
+ * in memory and in a file next to the libraries.
+ * <p>
+ * Entries younger than {@link DependencyLoader#getMetadataCacheTtl()} are used without any request.
+ * Older entries are refreshed with a conditional request, so an unchanged file costs a single 304.
+ *
+ * @author agent
+ * @since 2026/10/17 3:12
+ */
+public class MetadataCache {
+
+    public static final String FILE_NAME = ".metadata-cache";
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private final DependencyLoader dependencyLoader;
+    private final Logger logger;
+    private final File librariesFolder;
+    private final File cacheFile;
+    private final Map<String, Metadata> entries = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private volatile boolean dirty;
+
+    protected MetadataCache(DependencyLoader dependencyLoader) {
+        this.dependencyLoader = dependencyLoader;
+        this.logger = dependencyLoader.logger;
+        this.librariesFolder = dependencyLoader.librariesFolder;
+        this.cacheFile = new File(librariesFolder, FILE_NAME);
+    }
+
+    /**
+     * Returns the metadata of the artifact in the repository, fetching it only if the cached copy has expired.
+     *
+     * @param repository The repository url, ending with a slash.
+     * @return the metadata, or null if the repository does not have it.
+     */
+    protected Metadata getMetadata(@NotNull String repository, @NotNull String groupId, @NotNull String artifactId) {
+        load();
+        String key = repository + groupId + ":" + artifactId;
+        Metadata cached = entries.get(key);
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.fetchedAt < dependencyLoader.getMetadataCacheTtl()) {
+            return cached;
+        }
+
+        String url = String.format("%s%s/%s/maven-metadata.xml", repository, groupId.replace(".", "/"), artifactId);
+        Map<String, String> headers = new HashMap<>();
+        if (cached != null) {
+            if (cached.etag != null) {
+                headers.put("If-None-Match", cached.etag);
+            }
+            if (cached.lastModified != null) {
+                headers.put("If-Modified-Since", cached.lastModified);
+            }
+        }
+        try (TransportResponse response = dependencyLoader.getTransport().get(url, headers)) {
+            Metadata metadata;
+            if (response.getStatusCode() == 304 && cached != null) {
+                metadata = new Metadata(now, cached.etag, cached.lastModified, cached.latest, cached.release, cached.versions);
+            } else if (response.isSuccessful()) {
+                metadata = parse(response.getBody(), now, response.getHeader("ETag"), response.getHeader("Last-Modified"));
+            } else {
+                throw new FileNotFoundException(String.format("%s responded with %d", url, response.getStatusCode()));
+            }
+            entries.put(key, metadata);
+            dirty = true;
+            return metadata;
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException | XMLStreamException e) {
+            logger.severe(String.format("Failed to read %s\n%s", url, ExceptionUtil.stackTraceToString(e)));
+            return null;
+        }
+    }
+
+    /**
+     * Writes the cache, merging in the entries other processes sharing the libraries folder have saved in the meantime.
+     * Of two entries for the same artifact, the one fetched last is kept.
+     */
+    protected synchronized void save() {
+        if (!dirty || !librariesFolder.isDirectory()) {
+            return;
+        }
+        dirty = false;
+        File tempFile = new File(librariesFolder, FILE_NAME + ".tmp");
+        try (ArtifactLock ignored = ArtifactLock.acquire(cacheFile)) {
+            Map<String, Metadata> saved = new HashMap<>();
+            read(saved);
+            saved.forEach((key, metadata) -> entries.merge(key, metadata, (current, other) -> other.fetchedAt > current.fetchedAt ? other : current));
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Metadata> entry : entries.entrySet()) {
+                    Metadata metadata = entry.getValue();
+                    writer.write(String.join("\t",
+                            entry.getKey(),
+                            String.valueOf(metadata.fetchedAt),
+                            nullToEmpty(metadata.etag),
+                            nullToEmpty(metadata.lastModified),
+                            nullToEmpty(metadata.latest),
+                            nullToEmpty(metadata.release),
+                            String.join(",", metadata.versions)
+                    ));
+                    writer.newLine();
+                }
+            }
+            try {
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            dirty = true;
+            logger.warning(String.format("Failed to save metadata cache %s\n%s", cacheFile, ExceptionUtil.stackTraceToString(e)));
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            read(entries);
+            loaded = true;
+        }
+    }
+
+    private void read(Map<String, Metadata> target) {
+        if (!cacheFile.isFile()) {
+            return;
+        }
+        Map<String, Metadata> result = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(cacheFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] ary = line.split("\t", -1);
+                if (ary.length != 7) {
+                    continue;
+                }
+                try {
+                    List<String> versions = ary[6].isEmpty() ? Collections.emptyList() : Arrays.asList(ary[6].split(","));
+                    result.put(ary[0], new Metadata(Long.parseLong(ary[1]), emptyToNull(ary[2]), emptyToNull(ary[3]), emptyToNull(ary[4]), emptyToNull(ary[5]), versions));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        } catch (IOException e) {
+            // 缓存文件损坏时当作空缓存处理
+            return;
+        }
+        target.putAll(result);
+    }
+
+    private static Metadata parse(InputStream input, long fetchedAt, String etag, String lastModified) throws XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(input);
+        try {
+            String latest = null, release = null;
+            List<String> versions = new ArrayList<>();
+            // 只关心 metadata/versioning 下的元素
+            List<String> path = new ArrayList<>();
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    path.add(name);
+                    if (path.size() < 3 || !path.get(1).equals("versioning")) {
+                        continue;
+                    }
+                    if (path.size() == 3 && name.equals("latest")) {
+                        latest = reader.getElementText().trim();
+                        path.remove(path.size() - 1);
+                    } else if (path.size() == 3 && name.equals("release")) {
+                        release = reader.getElementText().trim();
+                        path.remove(path.size() - 1);
+                    } else if (path.size() == 4 && path.get(2).equals("versions") && name.equals("version")) {
+                        versions.add(reader.getElementText().trim());
+                        path.remove(path.size() - 1);
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    path.remove(path.size() - 1);
+                }
+            }
+            return new Metadata(fetchedAt, etag, lastModified, latest, release, Collections.unmodifiableList(versions));
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * The versioning section of a {@code maven-metadata.xml}.
+     */
+    @Getter
+    public static class Metadata {
+        private final long fetchedAt;
+        private final String etag;
+        private final String lastModified;
+        private final String latest;
+        private final String release;
+        private final List<String> versions;
+
+        private Metadata(long fetchedAt, String etag, String lastModified, String latest, String release, List<String> versions) {
+            this.fetchedAt = fetchedAt;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.latest = latest;
+            this.release = release;
+            this.versions = versions;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.theramu.dependencyloader;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates the events of a {@link DependencyLoader} into counters, without allocating per event.
+ * <p>
+ * For each {@link DependencyEvent.Type} it keeps the number of events and the sums of their bytes and durations,
+ * from which per-phase timings and the download throughput can be read at any time.
+ *
+ * @author agent
+ * @since 2026/10/17 3:25
+ */
+public class MetricsListener implements DependencyListener {
+
+    private final LongAdder[] counts = newAdders();
+    private final LongAdder[] bytes = newAdders();
+    private final LongAdder[] durations = newAdders();
+
+    @Override
+    public void onEvent(@NotNull DependencyEvent event) {
+        int index = event.getType().ordinal();
+        counts[index].increment();
+        bytes[index].add(event.getBytes());
+        durations[index].add(event.getDuration());
+    }
+
+    /**
+     * Returns the number of events of the type.
+     */
+    public long getCount(@NotNull DependencyEvent.Type type) {
+        return counts[type.ordinal()].sum();
+    }
+
+    /**
+     * Returns the sum of the bytes of the events of the type.
+     */
+    public long getBytes(@NotNull DependencyEvent.Type type) {
+        return bytes[type.ordinal()].sum();
+    }
+
+    /**
+     * Returns the sum of the durations of the events of the type, in the given unit.
+     */
+    public long getDuration(@NotNull DependencyEvent.Type type, @NotNull TimeUnit unit) {
+        return unit.convert(durations[type.ordinal()].sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the average throughput of the completed transfers in bytes per second, or 0 if none completed.
+     */
+    public long getDownloadThroughput() {
+        long duration = durations[DependencyEvent.Type.COMPLETE.ordinal()].sum();
+        if (duration <= 0) {
+            return 0;
+        }
+        return (long) (bytes[DependencyEvent.Type.COMPLETE.ordinal()].sum() / (duration / (double) TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    /**
+     * Returns the share of local lookups that found the dependency, between 0 and 1.
+     */
+    public double getCacheHitRatio() {
+        long hits = getCount(DependencyEvent.Type.CACHE_HIT);
+        long total = hits + getCount(DependencyEvent.Type.CACHE_MISS);
+        return total == 0 ? 0 : hits / (double) total;
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i].reset();
+            bytes[i].reset();
+            durations[i].reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("MetricsListener{");
+        for (DependencyEvent.Type type : DependencyEvent.Type.values()) {
+            if (type.ordinal() > 0) {
+                builder.append(", ");
+            }
+            builder.append(type).append("=[count=").append(getCount(type))
+                    .append(", bytes=").append(getBytes(type))
+                    .append(", duration=").append(getDuration(type, TimeUnit.MILLISECONDS)).append("ms]");
+        }
+        return builder.append(", throughput=").append(getDownloadThroughput()).append("B/s}").toString();
+    }
+
+    private static LongAdder[] newAdders() {
+        LongAdder[] adders = new LongAdder[DependencyEvent.Type.values().length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,192 @@
+package io.github.theramu.dependencyloader;
+
+import io.github.theramu.dependencyloader.util.ExceptionUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Records the packages, i.e. the directories holding entries, of every jar in the libraries folder,
+ * so that the central directory of an unchanged jar only has to be read once.
+ * <p>
+ * Each line holds the path of the jar, its size, its modification time, whether it is a multi-release jar
+ * and its packages separated by commas, with "/" standing for the root of the jar.
+ * The versioned entries of a multi-release jar count towards the packages they override.
+ *
+ * @author agent
+ * @since 2026/10/17 3:51
+ */
+public class PackageIndex {
+
+    public static final String FILE_NAME = ".package-index";
+    private static final String ROOT = "/";
+    private static final String VERSIONS = "META-INF/versions/";
+
+    private final Logger logger;
+    private final File librariesFolder;
+    private final File indexFile;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private volatile boolean dirty;
+
+    protected PackageIndex(Logger logger, File librariesFolder) {
+        this.logger = logger;
+        this.librariesFolder = librariesFolder;
+        this.indexFile = new File(librariesFolder, FILE_NAME);
+    }
+
+    /**
+     * Returns the packages of the jar in the form "com/example", or "" for its root,
+     * reading its central directory if the jar is not indexed or has changed.
+     */
+    protected Set<String> getPackages(@NotNull File file) throws IOException {
+        return getEntry(file).packages;
+    }
+
+    /**
+     * Returns whether the jar holds versioned entries under "META-INF/versions/",
+     * whose lookups have to be left to the multi-release aware {@code URLClassLoader}.
+     */
+    protected boolean isMultiRelease(@NotNull File file) throws IOException {
+        return getEntry(file).multiRelease;
+    }
+
+    private Entry getEntry(File file) throws IOException {
+        load();
+        String key = getKey(file);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.size == file.length() && entry.lastModified == file.lastModified()) {
+            return entry;
+        }
+        Set<String> packages = new HashSet<>();
+        boolean multiRelease = false;
+        try (ZipFile zipFile = new ZipFile(file)) {
+            Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+            while (zipEntries.hasMoreElements()) {
+                String name = zipEntries.nextElement().getName();
+                if (name.startsWith(VERSIONS)) {
+                    // META-INF/versions/11/com/example/Foo.class 属于 com/example 包
+                    int index = name.indexOf('/', VERSIONS.length());
+                    if (index == -1) {
+                        continue;
+                    }
+                    multiRelease = true;
+                    name = name.substring(index + 1);
+                }
+                int index = name.lastIndexOf('/');
+                packages.add(index == -1 ? "" : name.substring(0, index));
+            }
+        }
+        entry = new Entry(file.length(), file.lastModified(), multiRelease, Collections.unmodifiableSet(packages));
+        entries.put(key, entry);
+        dirty = true;
+        return entry;
+    }
+
+    protected synchronized void save() {
+        if (!dirty || !librariesFolder.isDirectory()) {
+            return;
+        }
+        dirty = false;
+        File tempFile = new File(librariesFolder, FILE_NAME + ".tmp");
+        try (ArtifactLock ignored = ArtifactLock.acquire(indexFile)) {
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    Entry value = entry.getValue();
+                    StringBuilder packages = new StringBuilder();
+                    for (String name : value.packages) {
+                        if (packages.length() > 0) {
+                            packages.append(',');
+                        }
+                        packages.append(name.isEmpty() ? ROOT : name);
+                    }
+                    writer.write(entry.getKey() + "\t" + value.size + "\t" + value.lastModified + "\t" + value.multiRelease + "\t" + packages);
+                    writer.newLine();
+                }
+            }
+            try {
+                Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            dirty = true;
+            logger.warning(String.format("Failed to save package index %s\n%s", indexFile, ExceptionUtil.stackTraceToString(e)));
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            if (indexFile.isFile()) {
+                Map<String, Entry> result = new HashMap<>();
+                try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        String[] ary = line.split("\t", -1);
+                        // 旧格式的行没有多版本标记，重新读取对应的 jar
+                        if (ary.length != 5) {
+                            continue;
+                        }
+                        Set<String> packages = new HashSet<>();
+                        for (String name : Arrays.asList(ary[4].split(","))) {
+                            if (!name.isEmpty()) {
+                                packages.add(name.equals(ROOT) ? "" : name);
+                            }
+                        }
+                        try {
+                            result.put(ary[0], new Entry(Long.parseLong(ary[1]), Long.parseLong(ary[2]), Boolean.parseBoolean(ary[3]), Collections.unmodifiableSet(packages)));
+                        } catch (NumberFormatException ignored) {
+                        }
+                    }
+                    entries.putAll(result);
+                } catch (IOException e) {
+                    // 索引损坏时重新读取各个 jar
+                }
+            }
+            loaded = true;
+        }
+    }
+
+    private String getKey(File file) {
+        String path = librariesFolder.toPath().toAbsolutePath().relativize(file.toPath().toAbsolutePath()).toString();
+        return path.replace(File.separatorChar, '/');
+    }
+
+    private static class Entry {
+        private final long size;
+        private final long lastModified;
+        private final boolean multiRelease;
+        private final Set<String> packages;
+
+        private Entry(long size, long lastModified, boolean multiRelease, Set<String> packages) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.multiRelease = multiRelease;
+            this.packages = packages;
+        }
+    }
+}
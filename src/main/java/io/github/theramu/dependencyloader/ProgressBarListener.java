@@ -0,0 +1,78 @@
+package io.github.theramu.dependencyloader;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Logs the progress of downloads as a text progress bar. Registered by default on every {@link DependencyLoader}.
+ *
+ * @author agent
+ * @since 2026/10/17 3:25
+ */
+public class ProgressBarListener implements DependencyListener {
+
+    private static final int BAR_LENGTH = 15;
+    private final Logger logger;
+
+    public ProgressBarListener(@NotNull Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public void onEvent(@NotNull DependencyEvent event) {
+        if (event.getType() == DependencyEvent.Type.DOWNLOAD_START) {
+            logger.info(String.format("Downloading %s ...", event.getFileName()));
+        } else if (event.getType() == DependencyEvent.Type.PROGRESS && event.getTotalBytes() > 0) {
+            long rate = (long) (event.getBytes() / Math.max(event.getDuration() / (double) TimeUnit.SECONDS.toNanos(1), 0.001));
+            printProgressBar(event.getFileName(), event.getTotalBytes(), event.getTransferredBytes(), rate);
+        }
+    }
+
+    private void printProgressBar(String fileName, long length, long byteSum, long rate) {
+        double progress = byteSum / (double) length;
+        StringBuilder message = new StringBuilder(128);
+        message.append(byteSum >= length ? "Downloaded " : "Downloading ").append(fileName).append(' ');
+        appendTenths(message, (long) (progress * 1000)).append("% [");
+        for (int i = 0; i < BAR_LENGTH; i++) {
+            message.append(i < progress * BAR_LENGTH ? '=' : ' ');
+        }
+        message.append("] ");
+        appendByteSize(message, byteSum).append('/');
+        appendByteSize(message, length);
+        if (byteSum < length && rate > 0) {
+            message.append("  ");
+            appendByteSize(message, rate).append("/s\t eta ");
+            appendTime(message, (int) Math.ceil((length - byteSum) / (double) rate));
+        }
+        logger.info(message.toString());
+    }
+
+    private static void appendTime(StringBuilder builder, int time) {
+        int hour = time / 3600;
+        int min = (time % 3600) / 60;
+        int sec = time % 60;
+        if (hour > 0) builder.append(hour).append("h ");
+        if (min > 0) builder.append(min).append("m ");
+        builder.append(sec).append('s');
+    }
+
+    private static StringBuilder appendByteSize(StringBuilder builder, long length) {
+        if (length >= 1024 * 1024 * 1024) {
+            return appendTenths(builder, length * 10 / (1024 * 1024 * 1024)).append(" GB");
+        }
+        if (length >= 1024 * 1024) {
+            return appendTenths(builder, length * 10 / (1024 * 1024)).append(" MB");
+        }
+        if (length >= 1024) {
+            return appendTenths(builder, length * 10 / 1024).append(" kB");
+        }
+        return builder.append(length).append(" Byte");
+    }
+
+    // 以整数运算输出一位小数，避免每次创建 DecimalFormat
+    private static StringBuilder appendTenths(StringBuilder builder, long tenths) {
+        return builder.append(tenths / 10).append('.').append(tenths % 10);
+    }
+}
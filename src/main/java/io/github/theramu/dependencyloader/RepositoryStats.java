@@ -0,0 +1,290 @@
+package io.github.theramu.dependencyloader;
+
+import io.github.theramu.dependencyloader.util.ExceptionUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Tracks how each repository has served the libraries folder, in memory and in a file next to the libraries:
+ * its throughput, its error rate and the artifacts it does not have.
+ * <p>
+ * Repositories are ordered by their expected throughput, an artifact a repository recently reported missing
+ * is not requested from it again for {@link DependencyLoader#getNotFoundCacheTtl()}, and a repository that failed
+ * several times in a row is skipped for {@link DependencyLoader#getRepositoryCooldown()}.
+ *
+ * @author agent
+ * @since 2026/10/17 3:41
+ */
+public class RepositoryStats {
+
+    public static final String FILE_NAME = ".repository-stats";
+    private static final int FAILURE_THRESHOLD = 3;
+    // 指数加权平均中新样本的权重
+    private static final double WEIGHT = 0.3;
+
+    private final DependencyLoader dependencyLoader;
+    private final Logger logger;
+    private final File librariesFolder;
+    private final File statsFile;
+    private final Map<String, Stats> repositories = new ConcurrentHashMap<>();
+    private final Map<String, Long> notFound = new ConcurrentHashMap<>();
+    // 自上次保存以来本进程记录过的仓库，保存时以内存中的统计为准
+    private final Set<String> recorded = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+    private volatile boolean dirty;
+
+    protected RepositoryStats(DependencyLoader dependencyLoader) {
+        this.dependencyLoader = dependencyLoader;
+        this.logger = dependencyLoader.logger;
+        this.librariesFolder = dependencyLoader.librariesFolder;
+        this.statsFile = new File(librariesFolder, FILE_NAME);
+    }
+
+    /**
+     * Returns the repositories without those in cooldown, ordered by their expected throughput.
+     * Repositories without samples rank with the best one and keep their given order among ties.
+     * If every repository is in cooldown, they are all returned in the given order.
+     */
+    protected List<String> order(@NotNull List<String> repositoryList) {
+        load();
+        long now = System.currentTimeMillis();
+        List<String> available = new ArrayList<>();
+        for (String repository : repositoryList) {
+            Stats stats = repositories.get(normalize(repository));
+            if (stats == null || stats.openUntil <= now) {
+                available.add(repository);
+            }
+        }
+        if (available.isEmpty()) {
+            return repositoryList;
+        }
+        double best = 0;
+        for (String repository : available) {
+            best = Math.max(best, getScore(repository, 0));
+        }
+        double unknownScore = best;
+        available.sort(Comparator.comparingDouble((String repository) -> getScore(repository, unknownScore)).reversed());
+        return available;
+    }
+
+    /**
+     * Returns whether the repository reported the artifact missing within {@link DependencyLoader#getNotFoundCacheTtl()}.
+     */
+    protected boolean isNotFound(@NotNull String repository, String groupId, String artifactId, String version) {
+        load();
+        String key = getNotFoundKey(repository, groupId, artifactId, version);
+        Long expiresAt = notFound.get(key);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt > System.currentTimeMillis()) {
+            return true;
+        }
+        notFound.remove(key, expiresAt);
+        dirty = true;
+        return false;
+    }
+
+    /**
+     * Records the outcome of a download with the status codes of {@link DependencyDownloader}.
+     * Local write failures and cancelled downloads say nothing about the repository and are ignored.
+     */
+    protected void record(@NotNull String repository, int statusCode, String groupId, String artifactId, String version, long bytes, long elapsedNanos) {
+        load();
+        String key = normalize(repository);
+        Stats stats = repositories.computeIfAbsent(key, k -> new Stats());
+        switch (statusCode) {
+            case 1:
+                stats.recordSuccess(bytes, elapsedNanos);
+                break;
+            case 2:
+                // 仓库正常响应，只是没有该文件
+                stats.recordSuccess(0, 0);
+                long ttl = dependencyLoader.getNotFoundCacheTtl();
+                if (ttl > 0) {
+                    notFound.put(getNotFoundKey(repository, groupId, artifactId, version), System.currentTimeMillis() + ttl);
+                }
+                break;
+            case 3:
+            case 5:
+            case 6:
+                if (stats.recordFailure(dependencyLoader.getRepositoryCooldown())) {
+                    logger.warning(String.format("Repository %s failed %d times in a row, skipping it for %d ms", repository, FAILURE_THRESHOLD, dependencyLoader.getRepositoryCooldown()));
+                }
+                break;
+            default:
+                return;
+        }
+        recorded.add(key);
+        dirty = true;
+    }
+
+    /**
+     * Writes the stats, merging in what other processes sharing the libraries folder have saved in the meantime.
+     * Repositories recorded by this process since the last save keep their stats from memory,
+     * the others take the saved ones, and the not-found entries of both are kept.
+     */
+    protected synchronized void save() {
+        if (!dirty || !librariesFolder.isDirectory()) {
+            return;
+        }
+        dirty = false;
+        long now = System.currentTimeMillis();
+        File tempFile = new File(librariesFolder, FILE_NAME + ".tmp");
+        Set<String> saving = new HashSet<>(recorded);
+        try (ArtifactLock ignored = ArtifactLock.acquire(statsFile)) {
+            Map<String, Stats> savedRepositories = new HashMap<>();
+            Map<String, Long> savedNotFound = new HashMap<>();
+            read(savedRepositories, savedNotFound);
+            savedRepositories.forEach((key, stats) -> {
+                if (!recorded.contains(key)) {
+                    repositories.put(key, stats);
+                }
+            });
+            savedNotFound.forEach((key, expiresAt) -> notFound.merge(key, expiresAt, Math::max));
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Stats> entry : repositories.entrySet()) {
+                    Stats stats = entry.getValue();
+                    synchronized (stats) {
+                        writer.write(String.join("\t",
+                                "R",
+                                entry.getKey(),
+                                String.valueOf(stats.throughput),
+                                String.valueOf(stats.errorRate),
+                                String.valueOf(stats.consecutiveFailures),
+                                String.valueOf(stats.openUntil)
+                        ));
+                    }
+                    writer.newLine();
+                }
+                for (Map.Entry<String, Long> entry : notFound.entrySet()) {
+                    if (entry.getValue() <= now) {
+                        continue;
+                    }
+                    writer.write("N\t" + entry.getKey() + "\t" + entry.getValue());
+                    writer.newLine();
+                }
+            }
+            try {
+                Files.move(tempFile.toPath(), statsFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), statsFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            recorded.removeAll(saving);
+        } catch (IOException e) {
+            dirty = true;
+            logger.warning(String.format("Failed to save repository stats %s\n%s", statsFile, ExceptionUtil.stackTraceToString(e)));
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            read(repositories, notFound);
+            loaded = true;
+        }
+    }
+
+    private void read(Map<String, Stats> repositories, Map<String, Long> notFound) {
+        if (!statsFile.isFile()) {
+            return;
+        }
+        Map<String, Stats> repositoryResult = new HashMap<>();
+        Map<String, Long> notFoundResult = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(statsFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] ary = line.split("\t", -1);
+                try {
+                    if (ary.length == 6 && ary[0].equals("R")) {
+                        Stats stats = new Stats();
+                        stats.throughput = Double.parseDouble(ary[2]);
+                        stats.errorRate = Double.parseDouble(ary[3]);
+                        stats.consecutiveFailures = Integer.parseInt(ary[4]);
+                        stats.openUntil = Long.parseLong(ary[5]);
+                        repositoryResult.put(ary[1], stats);
+                    } else if (ary.length == 4 && ary[0].equals("N")) {
+                        notFoundResult.put(ary[1] + "\t" + ary[2], Long.parseLong(ary[3]));
+                    }
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        } catch (IOException e) {
+            // 文件损坏时当作没有统计处理
+            return;
+        }
+        repositories.putAll(repositoryResult);
+        notFound.putAll(notFoundResult);
+    }
+
+    private double getScore(String repository, double unknownScore) {
+        Stats stats = repositories.get(normalize(repository));
+        if (stats == null) {
+            return unknownScore;
+        }
+        synchronized (stats) {
+            return (stats.throughput > 0 ? stats.throughput : unknownScore) * (1 - stats.errorRate);
+        }
+    }
+
+    private static String getNotFoundKey(String repository, String groupId, String artifactId, String version) {
+        return normalize(repository) + "\t" + groupId + ":" + artifactId + ":" + version;
+    }
+
+    private static String normalize(String repository) {
+        return repository.endsWith("/") ? repository : repository + "/";
+    }
+
+    private static class Stats {
+        // 字节每秒，0 表示尚无样本
+        private double throughput;
+        private double errorRate;
+        private int consecutiveFailures;
+        private long openUntil;
+
+        private synchronized void recordSuccess(long bytes, long elapsedNanos) {
+            if (bytes > 0 && elapsedNanos > 0) {
+                double sample = bytes * 1e9 / elapsedNanos;
+                throughput = throughput > 0 ? throughput + WEIGHT * (sample - throughput) : sample;
+                errorRate -= WEIGHT * errorRate;
+            }
+            consecutiveFailures = 0;
+            openUntil = 0;
+        }
+
+        /**
+         * @return true if the failure opened the circuit.
+         */
+        private synchronized boolean recordFailure(long cooldown) {
+            errorRate += WEIGHT * (1 - errorRate);
+            // 冷却结束后的首次请求再次失败时立即重新进入冷却
+            if (++consecutiveFailures >= FAILURE_THRESHOLD && cooldown > 0) {
+                openUntil = System.currentTimeMillis() + cooldown;
+                return consecutiveFailures == FAILURE_THRESHOLD;
+            }
+            return false;
+        }
+    }
+}
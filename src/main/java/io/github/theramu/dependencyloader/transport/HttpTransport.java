@@ -0,0 +1,149 @@
+package io.github.theramu.dependencyloader.transport;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The default {@link Transport} backed by {@link HttpURLConnection}.
+ * <p>
+ * Connections are kept alive and pooled per repository host by the JDK, as long as every body is
+ * fully consumed before it is closed. {@link TransportResponse#close()} therefore drains small leftovers,
+ * so that one connection to a repository can be reused for a whole batch of downloads.
+ * The number of idle connections kept per host is controlled by the {@code http.maxConnections} system property.
+ *
+ * @author agent
+ * @since 2026/10/17 3:09
+ */
+@Getter
+@Setter
+public class HttpTransport implements Transport {
+
+    private static final int DRAIN_LIMIT = 64 * 1024;
+
+    /**
+     * The connect timeout in milliseconds.
+     */
+    private int connectTimeout = 10000;
+    /**
+     * The read timeout in milliseconds.
+     */
+    private int readTimeout = 100000;
+    /**
+     * How many times a request is retried after an I/O error or a server error.
+     */
+    private int retries = 2;
+    /**
+     * The delay in milliseconds before the first retry, doubled after each further attempt.
+     */
+    private int retryDelay = 500;
+    /**
+     * The proxy to connect through, or null to use the system default.
+     */
+    private Proxy proxy;
+    private String userAgent = "DependencyLoader";
+
+    @Override
+    public @NotNull TransportResponse get(@NotNull String url, @NotNull Map<String, String> headers) throws IOException {
+        return execute("GET", url, headers);
+    }
+
+    @Override
+    public @NotNull TransportResponse head(@NotNull String url) throws IOException {
+        return execute("HEAD", url, new HashMap<>());
+    }
+
+    @Override
+    public @NotNull TransportResponse head(@NotNull String url, int timeout) throws IOException {
+        // 探测请求不重试也不跟随重定向，超时后立即放弃
+        return open("HEAD", url, new HashMap<>(), timeout, timeout, false);
+    }
+
+    private TransportResponse execute(String method, String url, Map<String, String> headers) throws IOException {
+        IOException lastException = null;
+        for (int attempt = 0; attempt <= retries; attempt++) {
+            if (attempt > 0) {
+                try {
+                    Thread.sleep((long) retryDelay << (attempt - 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            try {
+                TransportResponse response = open(method, url, headers, connectTimeout, readTimeout, true);
+                if (response.getStatusCode() < 500 || attempt == retries) {
+                    return response;
+                }
+                response.close();
+            } catch (UnknownHostException e) {
+                throw e;
+            } catch (IOException e) {
+                lastException = e;
+            }
+        }
+        throw lastException == null ? new IOException("Request to " + url + " was interrupted") : lastException;
+    }
+
+    private TransportResponse open(String method, String url, Map<String, String> headers, int connectTimeout, int readTimeout, boolean followRedirects) throws IOException {
+        URL target = new URL(url);
+        URLConnection connection = proxy == null ? target.openConnection() : target.openConnection(proxy);
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        connection.setRequestProperty("User-Agent", userAgent);
+        headers.forEach(connection::setRequestProperty);
+        if (!(connection instanceof HttpURLConnection)) {
+            // 非 HTTP 协议（如 file://）直接读取
+            return new TransportResponse(200, connection.getContentLengthLong(), new HashMap<>(), connection.getInputStream());
+        }
+
+        HttpURLConnection httpConnection = (HttpURLConnection) connection;
+        httpConnection.setRequestMethod(method);
+        httpConnection.setInstanceFollowRedirects(followRedirects);
+        int statusCode = httpConnection.getResponseCode();
+        Map<String, String> responseHeaders = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : httpConnection.getHeaderFields().entrySet()) {
+            if (entry.getKey() != null && !entry.getValue().isEmpty()) {
+                responseHeaders.put(entry.getKey(), entry.getValue().get(0));
+            }
+        }
+        InputStream body = statusCode >= 400 ? httpConnection.getErrorStream() : httpConnection.getInputStream();
+        return new TransportResponse(statusCode, httpConnection.getContentLengthLong(), responseHeaders, body == null ? null : new DrainingInputStream(body), httpConnection::disconnect);
+    }
+
+    /**
+     * Consumes what is left of a small body on close, which allows the JDK to return the connection to its keep-alive cache.
+     */
+    private static class DrainingInputStream extends FilterInputStream {
+
+        private DrainingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                byte[] buffer = new byte[8192];
+                int drained = 0, bytesRead;
+                while (drained < DRAIN_LIMIT && (bytesRead = in.read(buffer)) != -1) {
+                    drained += bytesRead;
+                }
+            } catch (IOException ignored) {
+            } finally {
+                super.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.theramu.dependencyloader.transport;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The transport used by the loader to talk to remote repositories.
+ * <p>
+ * Implementations must be thread safe, as downloads run concurrently.
+ * A custom implementation can be set with {@link io.github.theramu.dependencyloader.DependencyLoader#setTransport(Transport)},
+ * for example to route requests to an in-process stand-in server in tests.
+ *
+ * @author agent
+ * @since 2026/10/17 3:09
+ */
+public interface Transport {
+
+    /**
+     * Sends a GET request.
+     *
+     * @param url     The absolute url of the resource.
+     * @param headers Additional request headers, such as "Range" or "If-None-Match".
+     * @return The response, which must be closed by the caller.
+     * @throws IOException if the request could not be completed.
+     */
+    @NotNull
+    TransportResponse get(@NotNull String url, @NotNull Map<String, String> headers) throws IOException;
+
+    /**
+     * Sends a HEAD request.
+     *
+     * @param url The absolute url of the resource.
+     * @return The response without a body, which must be closed by the caller.
+     * @throws IOException if the request could not be completed.
+     */
+    @NotNull
+    TransportResponse head(@NotNull String url) throws IOException;
+
+    /**
+     * Sends a HEAD request to probe whether the url can be reached.
+     * Unlike {@link #head(String)}, the request gives up once the timeout expires, is not retried and does not follow redirects.
+     * The default implementation ignores the timeout and sends a plain HEAD request.
+     *
+     * @param url     The absolute url of the resource.
+     * @param timeout The connect and read timeout in milliseconds.
+     * @return The response without a body, which must be closed by the caller.
+     * @throws IOException if the request could not be completed.
+     */
+    @NotNull
+    default TransportResponse head(@NotNull String url, int timeout) throws IOException {
+        return head(url);
+    }
+
+    /**
+     * Sends a GET request without additional headers.
+     */
+    @NotNull
+    default TransportResponse get(@NotNull String url) throws IOException {
+        return get(url, Collections.emptyMap());
+    }
+
+    /**
+     * Requests the byte range from start to end, both inclusive.
+     *
+     * @param end The last byte to request, or a negative value to request everything after start.
+     */
+    @NotNull
+    default TransportResponse getRange(@NotNull String url, long start, long end) throws IOException {
+        return getRange(url, start, end, null);
+    }
+
+    /**
+     * Requests the byte range from start to end, both inclusive, only if the resource still matches the validator.
+     * Otherwise the server answers with the whole resource and status 200.
+     *
+     * @param end     The last byte to request, or a negative value to request everything after start.
+     * @param ifRange The ETag or Last-Modified value of the resource as previously received, or null to request the range unconditionally.
+     */
+    @NotNull
+    default TransportResponse getRange(@NotNull String url, long start, long end, String ifRange) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Range", "bytes=" + start + "-" + (end < 0 ? "" : String.valueOf(end)));
+        if (ifRange != null) {
+            headers.put("If-Range", ifRange);
+        }
+        return get(url, headers);
+    }
+}
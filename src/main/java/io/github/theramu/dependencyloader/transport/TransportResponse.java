@@ -0,0 +1,82 @@
+package io.github.theramu.dependencyloader.transport;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A response returned by a {@link Transport}.
+ *
+ * @author agent
+ * @since 2026/10/17 3:09
+ */
+@Getter
+public class TransportResponse implements Closeable {
+
+    private final int statusCode;
+    private final long contentLength;
+    private final Map<String, String> headers;
+    private final InputStream body;
+    @Getter(AccessLevel.NONE)
+    private final Closeable connection;
+
+    /**
+     * @param statusCode    The HTTP status code.
+     * @param contentLength The length of the body, or -1 if unknown.
+     * @param headers       The response headers, looked up case-insensitively.
+     * @param body          The body, or null if the response has none.
+     */
+    public TransportResponse(int statusCode, long contentLength, @NotNull Map<String, String> headers, InputStream body) {
+        this(statusCode, contentLength, headers, body, null);
+    }
+
+    /**
+     * @param statusCode    The HTTP status code.
+     * @param contentLength The length of the body, or -1 if unknown.
+     * @param headers       The response headers, looked up case-insensitively.
+     * @param body          The body, or null if the response has none.
+     * @param connection    Drops the underlying connection when closed, see {@link #abort()}, or null to close the body instead.
+     */
+    public TransportResponse(int statusCode, long contentLength, @NotNull Map<String, String> headers, InputStream body, Closeable connection) {
+        this.statusCode = statusCode;
+        this.contentLength = contentLength;
+        Map<String, String> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        map.putAll(headers);
+        this.headers = Collections.unmodifiableMap(map);
+        this.body = body == null ? new ByteArrayInputStream(new byte[0]) : body;
+        this.connection = connection;
+    }
+
+    public String getHeader(@NotNull String name) {
+        return headers.get(name);
+    }
+
+    public boolean isSuccessful() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    @Override
+    public void close() throws IOException {
+        body.close();
+    }
+
+    /**
+     * Aborts the response, possibly from another thread while the body is being read.
+     * Unlike {@link #close()}, the rest of the body is not consumed and the connection is not reused.
+     */
+    public void abort() throws IOException {
+        if (connection != null) {
+            connection.close();
+        } else {
+            body.close();
+        }
+    }
+}
@@ -1,12 +1,21 @@
 package io.github.theramu.dependencyloader.util;
 
-import java.net.InetAddress;
-import java.net.URL;
+import io.github.theramu.dependencyloader.transport.HttpTransport;
+import io.github.theramu.dependencyloader.transport.Transport;
+import io.github.theramu.dependencyloader.transport.TransportResponse;
+
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author TheRamU
@@ -14,34 +23,90 @@ import java.util.Map;
  */
 public class NetworkUtil {
 
+    public static final int DEFAULT_PROBE_TIMEOUT = 1500;
+
+    /**
+     * @deprecated Use {@link #connectLatency(Transport, String, int)}, which probes through the transport of the loader.
+     */
+    @Deprecated
     public static int connectLatency(String urlStr) {
-        try {
-            InetAddress address = InetAddress.getByName(new URL(urlStr).getHost());
-            long stamp = System.currentTimeMillis();
-            if (address.isReachable(5000)) {
-                return (int) (System.currentTimeMillis() - stamp);
-            }
-        } catch (Exception ignored) {
+        return connectLatency(new HttpTransport(), urlStr, DEFAULT_PROBE_TIMEOUT);
+    }
+
+    /**
+     * Measures the time taken by an HTTP HEAD request to the url, giving up after the timeout.
+     * Any HTTP response counts as reachable, since repository roots often answer with 404.
+     *
+     * @return the latency in milliseconds, or {@link Integer#MAX_VALUE} if the url could not be reached.
+     */
+    public static int connectLatency(Transport transport, String urlStr, int timeout) {
+        long stamp = System.currentTimeMillis();
+        try (TransportResponse ignored = transport.head(urlStr, timeout)) {
+            return (int) (System.currentTimeMillis() - stamp);
+        } catch (Exception e) {
+            return Integer.MAX_VALUE;
         }
-        return Integer.MAX_VALUE;
     }
 
+    /**
+     * @deprecated Use {@link #sortUrlsByLatency(Transport, String[], int)}, which probes through the transport of the loader.
+     */
+    @Deprecated
     public static List<String> sortUrlsByLatency(String[] urls) {
+        return sortUrlsByLatency(new HttpTransport(), urls, DEFAULT_PROBE_TIMEOUT);
+    }
+
+    /**
+     * Probes all urls at the same time through the transport and returns as soon as the fastest one answers or the timeout expires.
+     * Urls that answered come first in the order they answered, followed by those still pending
+     * and finally those that failed, each group keeping its original order.
+     */
+    public static List<String> sortUrlsByLatency(Transport transport, String[] urls, int timeout) {
         List<String> urlList = new ArrayList<>();
         Collections.addAll(urlList, urls);
-
-        Map<String, Integer> latencyMap = new HashMap<>();
-
-        for (String url : urls) {
-            latencyMap.put(url, connectLatency(url));
+        if (urlList.size() <= 1) {
+            return urlList;
         }
 
-        urlList.sort((url1, url2) -> {
-            int latency1 = latencyMap.get(url1);
-            int latency2 = latencyMap.get(url2);
-            return Integer.compare(latency1, latency2);
+        ExecutorService executor = Executors.newFixedThreadPool(urlList.size(), runnable -> {
+            Thread thread = new Thread(runnable, "DependencyLoader-Probe");
+            thread.setDaemon(true);
+            return thread;
         });
+        CompletionService<Map.Entry<String, Integer>> completionService = new ExecutorCompletionService<>(executor);
+        for (String url : urlList) {
+            completionService.submit(() -> new AbstractMap.SimpleEntry<>(url, connectLatency(transport, url, timeout)));
+        }
+
+        List<String> answered = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+            while (answered.isEmpty() && answered.size() + failed.size() < urlList.size()) {
+                long remaining = deadline - System.nanoTime();
+                Future<Map.Entry<String, Integer>> future = completionService.poll(remaining, TimeUnit.NANOSECONDS);
+                if (future == null) {
+                    break;
+                }
+                Map.Entry<String, Integer> result = future.get();
+                (result.getValue() == Integer.MAX_VALUE ? failed : answered).add(result.getKey());
+            }
+            // 收集已经完成的探测结果
+            Future<Map.Entry<String, Integer>> future;
+            while ((future = completionService.poll()) != null) {
+                Map.Entry<String, Integer> result = future.get();
+                (result.getValue() == Integer.MAX_VALUE ? failed : answered).add(result.getKey());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ignored) {
+        } finally {
+            executor.shutdownNow();
+        }
 
-        return urlList;
+        LinkedHashSet<String> ordered = new LinkedHashSet<>(answered);
+        urlList.stream().filter(url -> !failed.contains(url)).forEach(ordered::add);
+        ordered.addAll(failed);
+        return new ArrayList<>(ordered);
     }
-}
\ No newline at end of file
+}
@@ -5,7 +5,14 @@ import sun.misc.Unsafe;
 import java.io.File;
 import java.lang.reflect.Field;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 /**
  * @author TheRamU
@@ -14,6 +21,7 @@ import java.util.Collection;
 public class ReflectUtil {
 
     private static final Unsafe UNSAFE;
+    private static final Map<ClassLoader, ClassPath> CLASS_PATHS = new WeakHashMap<>();
 
     static {
         try {
@@ -25,35 +33,34 @@ public class ReflectUtil {
         }
     }
 
+    /**
+     * Appends the jar to the class path of the class loader that loaded this library.
+     */
     public static void loadJarFile(File file) throws Exception {
-        ClassLoader classLoader = ReflectUtil.class.getClassLoader();
+        loadJarFiles(Collections.singletonList(file));
+    }
 
-        Class<?> urlClassLoaderClass = findClassContainingField(classLoader.getClass(), "ucp");
-        if (urlClassLoaderClass == null) {
-            throw new IllegalStateException("Could not find URLClassLoader class");
+    /**
+     * Appends the jars, in order, to the class path of the class loader that loaded this library.
+     * Jars already on the class path are skipped.
+     */
+    public static void loadJarFiles(Collection<File> files) throws Exception {
+        List<URL> urlList = new ArrayList<>(files.size());
+        for (File file : files) {
+            urlList.add(file.toURI().toURL());
         }
+        getClassPath(ReflectUtil.class.getClassLoader()).addAll(urlList);
+    }
 
-        Field ucpField = urlClassLoaderClass.getDeclaredField("ucp");
-        long ucpOffset = UNSAFE.objectFieldOffset(ucpField);
-        Object ucp = UNSAFE.getObject(classLoader, ucpOffset);
-
-        Field pathField = ucp.getClass().getDeclaredField("path");
-        long pathOffset = UNSAFE.objectFieldOffset(pathField);
-        Collection<URL> path = (Collection<URL>) UNSAFE.getObject(ucp, pathOffset);
-
-        Field urlsField;
-        try {
-            urlsField = ucp.getClass().getDeclaredField("unopenedUrls");
-        } catch (NoSuchFieldException e) {
-            urlsField = ucp.getClass().getDeclaredField("urls");
-        }
-        long urlsOffset = UNSAFE.objectFieldOffset(urlsField);
-        Collection<URL> urls = (Collection<URL>) UNSAFE.getObject(ucp, urlsOffset);
-
-        URL url = file.toURI().toURL();
-        if (!path.contains(url)) {
-            path.add(url);
-            urls.add(url);
+    private static ClassPath getClassPath(ClassLoader classLoader) throws Exception {
+        // 反射句柄按类加载器缓存，只在首次注入时查找
+        synchronized (CLASS_PATHS) {
+            ClassPath classPath = CLASS_PATHS.get(classLoader);
+            if (classPath == null) {
+                classPath = new ClassPath(classLoader);
+                CLASS_PATHS.put(classLoader, classPath);
+            }
+            return classPath;
         }
     }
 
@@ -75,4 +82,54 @@ public class ReflectUtil {
             return false;
         }
     }
+
+    /**
+     * The {@code path} and unopened urls of the {@code URLClassPath} of a class loader,
+     * with a set of the urls already on it.
+     */
+    private static class ClassPath {
+        private final Collection<URL> path;
+        private final Collection<URL> urls;
+        private final Set<String> urlSet = new HashSet<>();
+
+        @SuppressWarnings("unchecked")
+        private ClassPath(ClassLoader classLoader) throws Exception {
+            Class<?> urlClassLoaderClass = findClassContainingField(classLoader.getClass(), "ucp");
+            if (urlClassLoaderClass == null) {
+                throw new IllegalStateException("Could not find URLClassLoader class");
+            }
+
+            Field ucpField = urlClassLoaderClass.getDeclaredField("ucp");
+            Object ucp = UNSAFE.getObject(classLoader, UNSAFE.objectFieldOffset(ucpField));
+
+            Field pathField = ucp.getClass().getDeclaredField("path");
+            path = (Collection<URL>) UNSAFE.getObject(ucp, UNSAFE.objectFieldOffset(pathField));
+
+            Field urlsField;
+            try {
+                urlsField = ucp.getClass().getDeclaredField("unopenedUrls");
+            } catch (NoSuchFieldException e) {
+                urlsField = ucp.getClass().getDeclaredField("urls");
+            }
+            urls = (Collection<URL>) UNSAFE.getObject(ucp, UNSAFE.objectFieldOffset(urlsField));
+
+            synchronized (urls) {
+                for (URL url : path) {
+                    urlSet.add(url.toString());
+                }
+            }
+        }
+
+        private void addAll(List<URL> urlList) {
+            // 与 URLClassPath.addURL 使用同一把锁
+            synchronized (urls) {
+                for (URL url : urlList) {
+                    if (urlSet.add(url.toString())) {
+                        path.add(url);
+                        urls.add(url);
+                    }
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,273 @@
+package io.github.theramu.dependencyloader.version;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A version number ordered the way Maven orders versions.
+ * <p>
+ * The version is split into numeric and qualifier items at dots, hyphens and transitions between digits and letters.
+ * Numbers compare numerically, and well-known qualifiers compare as
+ * {@code alpha < beta < milestone < rc < snapshot < "" (release) < sp}, with unknown qualifiers sorted after them lexically.
+ * Trailing zeros and release qualifiers are ignored, so {@code 1.0}, {@code 1} and {@code 1.0-final} are equal.
+ *
+ * @author agent
+ * @since 2026/10/17 3:14
+ */
+public class ComparableVersion implements Comparable<ComparableVersion> {
+
+    private static final List<String> QUALIFIERS = Arrays.asList("alpha", "beta", "milestone", "rc", "snapshot", "", "sp");
+    private static final String RELEASE_VERSION_INDEX = String.valueOf(QUALIFIERS.indexOf(""));
+
+    private final String value;
+    private final ListItem items;
+    private final String canonical;
+
+    public ComparableVersion(@NotNull String version) {
+        this.value = version;
+        this.items = parseVersion(version);
+        this.canonical = items.toString();
+    }
+
+    /**
+     * Checks whether this version is a snapshot, which is never picked for "release".
+     */
+    public boolean isSnapshot() {
+        return value.endsWith("-SNAPSHOT");
+    }
+
+    @Override
+    public int compareTo(@NotNull ComparableVersion other) {
+        return items.compareTo(other.items);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof ComparableVersion && canonical.equals(((ComparableVersion) obj).canonical);
+    }
+
+    @Override
+    public int hashCode() {
+        return canonical.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+
+    private static ListItem parseVersion(String version) {
+        version = version.toLowerCase(Locale.ENGLISH);
+        ListItem list = new ListItem();
+        ListItem items = list;
+        Deque<ListItem> stack = new ArrayDeque<>();
+        stack.push(list);
+
+        boolean isDigit = false;
+        int startIndex = 0;
+        for (int i = 0; i < version.length(); i++) {
+            char c = version.charAt(i);
+            if (c == '.' || c == '-') {
+                list.add(i == startIndex ? IntItem.ZERO : parseItem(isDigit, version.substring(startIndex, i), false));
+                startIndex = i + 1;
+                if (c == '-') {
+                    ListItem sublist = new ListItem();
+                    list.add(sublist);
+                    list = sublist;
+                    stack.push(list);
+                }
+            } else if (Character.isDigit(c)) {
+                if (!isDigit && i > startIndex) {
+                    // 字母后紧跟数字，如 "rc1" 中的 "rc"
+                    list.add(parseItem(false, version.substring(startIndex, i), true));
+                    startIndex = i;
+                    ListItem sublist = new ListItem();
+                    list.add(sublist);
+                    list = sublist;
+                    stack.push(list);
+                }
+                isDigit = true;
+            } else {
+                if (isDigit && i > startIndex) {
+                    list.add(parseItem(true, version.substring(startIndex, i), false));
+                    startIndex = i;
+                    ListItem sublist = new ListItem();
+                    list.add(sublist);
+                    list = sublist;
+                    stack.push(list);
+                }
+                isDigit = false;
+            }
+        }
+        if (version.length() > startIndex) {
+            list.add(parseItem(isDigit, version.substring(startIndex), false));
+        }
+        while (!stack.isEmpty()) {
+            stack.pop().normalize();
+        }
+        return items;
+    }
+
+    private static Item parseItem(boolean isDigit, String buf, boolean followedByDigit) {
+        return isDigit ? new IntItem(buf) : new StringItem(buf, followedByDigit);
+    }
+
+    private interface Item {
+        int compareTo(Item item);
+
+        boolean isNull();
+    }
+
+    private static class IntItem implements Item {
+        private static final IntItem ZERO = new IntItem("0");
+        private final BigInteger value;
+
+        private IntItem(String value) {
+            this.value = new BigInteger(value);
+        }
+
+        @Override
+        public int compareTo(Item item) {
+            if (item == null) {
+                return value.signum() == 0 ? 0 : 1;
+            }
+            if (item instanceof IntItem) {
+                return value.compareTo(((IntItem) item).value);
+            }
+            // 数字总是大于限定符与子列表
+            return 1;
+        }
+
+        @Override
+        public boolean isNull() {
+            return value.signum() == 0;
+        }
+
+        @Override
+        public String toString() {
+            return value.toString();
+        }
+    }
+
+    private static class StringItem implements Item {
+        private final String value;
+
+        private StringItem(String value, boolean followedByDigit) {
+            if (followedByDigit && value.length() == 1) {
+                switch (value.charAt(0)) {
+                    case 'a':
+                        value = "alpha";
+                        break;
+                    case 'b':
+                        value = "beta";
+                        break;
+                    case 'm':
+                        value = "milestone";
+                        break;
+                    default:
+                }
+            }
+            switch (value) {
+                case "ga":
+                case "final":
+                case "release":
+                    value = "";
+                    break;
+                case "cr":
+                    value = "rc";
+                    break;
+                default:
+            }
+            this.value = value;
+        }
+
+        private static String comparableQualifier(String qualifier) {
+            int index = QUALIFIERS.indexOf(qualifier);
+            return index == -1 ? QUALIFIERS.size() + "-" + qualifier : String.valueOf(index);
+        }
+
+        @Override
+        public int compareTo(Item item) {
+            if (item == null) {
+                return comparableQualifier(value).compareTo(RELEASE_VERSION_INDEX);
+            }
+            if (item instanceof StringItem) {
+                return comparableQualifier(value).compareTo(comparableQualifier(((StringItem) item).value));
+            }
+            return -1;
+        }
+
+        @Override
+        public boolean isNull() {
+            return comparableQualifier(value).equals(RELEASE_VERSION_INDEX);
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+
+    private static class ListItem extends ArrayList<Item> implements Item {
+
+        private void normalize() {
+            for (int i = size() - 1; i >= 0; i--) {
+                Item lastItem = get(i);
+                if (lastItem.isNull()) {
+                    remove(i);
+                } else if (!(lastItem instanceof ListItem)) {
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public int compareTo(Item item) {
+            if (item == null) {
+                return isEmpty() ? 0 : get(0).compareTo(null);
+            }
+            if (item instanceof IntItem) {
+                return -1;
+            }
+            if (item instanceof StringItem) {
+                return 1;
+            }
+            Iterator<Item> left = iterator();
+            Iterator<Item> right = ((ListItem) item).iterator();
+            while (left.hasNext() || right.hasNext()) {
+                Item l = left.hasNext() ? left.next() : null;
+                Item r = right.hasNext() ? right.next() : null;
+                int result = l == null ? (r == null ? 0 : -r.compareTo(null)) : l.compareTo(r);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public boolean isNull() {
+            return isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("(");
+            for (Item item : this) {
+                if (builder.length() > 1) {
+                    builder.append(item instanceof ListItem ? '-' : '.');
+                }
+                builder.append(item);
+            }
+            return builder.append(')').toString();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package io.github.theramu.dependencyloader.version;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * A Maven version range such as {@code [1.2,2.0)}, {@code [1.0]}, {@code (,1.5]} or {@code [1,2),[3,4)}.
+ *
+ * @author agent
+ * @since 2026/10/17 3:14
+ */
+public class VersionRange {
+
+    private final String spec;
+    private final List<Restriction> restrictions;
+
+    private VersionRange(String spec, List<Restriction> restrictions) {
+        this.spec = spec;
+        this.restrictions = restrictions;
+    }
+
+    /**
+     * Checks whether the version notation is a range rather than a single version.
+     */
+    public static boolean isRange(@NotNull String version) {
+        return version.startsWith("[") || version.startsWith("(");
+    }
+
+    public static VersionRange parse(@NotNull String spec) {
+        List<Restriction> restrictions = new ArrayList<>();
+        String remaining = spec.trim();
+        while (!remaining.isEmpty()) {
+            if (!isRange(remaining)) {
+                throw new IllegalArgumentException("Invalid version range " + spec);
+            }
+            int end = -1;
+            for (int i = 1; i < remaining.length(); i++) {
+                char c = remaining.charAt(i);
+                if (c == ']' || c == ')') {
+                    end = i;
+                    break;
+                }
+            }
+            if (end == -1) {
+                throw new IllegalArgumentException("Unbounded version range " + spec);
+            }
+            restrictions.add(parseRestriction(spec, remaining.substring(0, end + 1)));
+            remaining = remaining.substring(end + 1).trim();
+            if (remaining.startsWith(",")) {
+                remaining = remaining.substring(1).trim();
+            }
+        }
+        if (restrictions.isEmpty()) {
+            throw new IllegalArgumentException("Empty version range " + spec);
+        }
+        // 按上界从高到低排序，便于查找最高的匹配版本
+        restrictions.sort((a, b) -> {
+            if (a.upperBound == null || b.upperBound == null) {
+                return a.upperBound == null ? (b.upperBound == null ? 0 : -1) : 1;
+            }
+            return b.upperBound.compareTo(a.upperBound);
+        });
+        return new VersionRange(spec, Collections.unmodifiableList(restrictions));
+    }
+
+    private static Restriction parseRestriction(String spec, String restriction) {
+        boolean lowerInclusive = restriction.startsWith("[");
+        boolean upperInclusive = restriction.endsWith("]");
+        String content = restriction.substring(1, restriction.length() - 1).trim();
+        int index = content.indexOf(',');
+        if (index < 0) {
+            if (!lowerInclusive || !upperInclusive) {
+                throw new IllegalArgumentException("Single version must be surrounded by [] in " + spec);
+            }
+            ComparableVersion version = new ComparableVersion(content);
+            return new Restriction(version, true, version, true);
+        }
+        String lower = content.substring(0, index).trim();
+        String upper = content.substring(index + 1).trim();
+        return new Restriction(
+                lower.isEmpty() ? null : new ComparableVersion(lower), lowerInclusive,
+                upper.isEmpty() ? null : new ComparableVersion(upper), upperInclusive
+        );
+    }
+
+    public boolean containsVersion(@NotNull ComparableVersion version) {
+        for (Restriction restriction : restrictions) {
+            if (restriction.containsVersion(version)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the highest version in the sorted map that matches this range,
+     * using one floor lookup per restriction.
+     *
+     * @return the matching entry, or null if none matches.
+     */
+    public <V> Map.Entry<ComparableVersion, V> matchHighest(@NotNull NavigableMap<ComparableVersion, V> versions) {
+        for (Restriction restriction : restrictions) {
+            Map.Entry<ComparableVersion, V> entry;
+            if (restriction.upperBound == null) {
+                entry = versions.lastEntry();
+            } else if (restriction.upperInclusive) {
+                entry = versions.floorEntry(restriction.upperBound);
+            } else {
+                entry = versions.lowerEntry(restriction.upperBound);
+            }
+            if (entry != null && restriction.containsVersion(entry.getKey())) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+
+    private static class Restriction {
+        private final ComparableVersion lowerBound;
+        private final boolean lowerInclusive;
+        private final ComparableVersion upperBound;
+        private final boolean upperInclusive;
+
+        private Restriction(ComparableVersion lowerBound, boolean lowerInclusive, ComparableVersion upperBound, boolean upperInclusive) {
+            this.lowerBound = lowerBound;
+            this.lowerInclusive = lowerInclusive;
+            this.upperBound = upperBound;
+            this.upperInclusive = upperInclusive;
+        }
+
+        private boolean containsVersion(ComparableVersion version) {
+            if (lowerBound != null) {
+                int comparison = lowerBound.compareTo(version);
+                if (comparison > 0 || comparison == 0 && !lowerInclusive) {
+                    return false;
+                }
+            }
+            if (upperBound != null) {
+                int comparison = upperBound.compareTo(version);
+                return comparison > 0 || comparison == 0 && upperInclusive;
+            }
+            return true;
+        }
+    }
+}
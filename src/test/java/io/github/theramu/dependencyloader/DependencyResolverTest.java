@@ -0,0 +1,107 @@
+package io.github.theramu.dependencyloader;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DependencyResolverTest {
+
+    private static final String GROUP = "com.example.resolver:";
+
+    @TempDir
+    File librariesFolder;
+    private DependencyResolver resolver;
+    private String[] repositories;
+
+    @BeforeEach
+    void setUp() throws URISyntaxException {
+        DependencyLoader loader = new DependencyLoader(librariesFolder);
+        resolver = new DependencyResolver(loader, new DependencyDownloader(loader));
+        repositories = new String[]{new File(getClass().getResource("/repository").toURI()).toURI().toString()};
+    }
+
+    @Test
+    void resolvesTheTransitiveClosureByDepth() {
+        assertEquals(
+                Arrays.asList("app:1.0", "a:1.0", "b:1.0", "e:1.0", "d:3.0", "g:1.0", "f:1.0"),
+                resolve("app:1.0")
+        );
+    }
+
+    @Test
+    void interpolatesPropertiesFromTheProjectAndItsParent() {
+        // app 的 a 版本来自父 POM 的属性，b 的版本来自 ${project.version}
+        List<String> resolved = resolve("app:1.0");
+        assertEquals("a:1.0", resolved.get(1));
+        assertEquals("b:1.0", resolved.get(2));
+    }
+
+    @Test
+    void nearestVersionWins() {
+        // app 直接依赖 e:1.0，a 依赖的 e:2.0 路径更长
+        assertEquals("e:1.0", find(resolve("app:1.0"), "e"));
+    }
+
+    @Test
+    void exclusionsApplyToTheWholeSubtree() {
+        List<String> resolved = resolve("app:1.0");
+        assertFalse(resolved.contains("excluded:1.0"));
+        assertEquals("f:1.0", find(resolved, "f"));
+        assertEquals(Arrays.asList("b:1.0", "excluded:1.0", "f:1.0"), resolve("b:1.0"));
+    }
+
+    @Test
+    void skipsTestAndOptionalDependencies() {
+        List<String> resolved = resolve("app:1.0");
+        assertNull(find(resolved, "tool"));
+        assertNull(find(resolved, "extra"));
+    }
+
+    @Test
+    void rootManagementOverridesTransitiveVersionsOnly() {
+        // app 管理 d 为 3.0，e 为 9.0；直接声明的 e:1.0 保持不变
+        List<String> resolved = resolve("app:1.0");
+        assertEquals("d:3.0", find(resolved, "d"));
+        assertEquals("e:1.0", find(resolved, "e"));
+        // 单独解析 a 时不受 app 的管理影响，a 自身管理的 g 版本仍然生效
+        assertEquals(Arrays.asList("a:1.0", "d:1.0", "e:2.0", "g:1.0"), resolve("a:1.0"));
+    }
+
+    @Test
+    void recordsTheRootsOfEachDependency() {
+        List<Dependency> resolved = resolver.resolve(
+                Arrays.asList(new Dependency(GROUP + "a:1.0"), new Dependency(GROUP + "b:1.0")),
+                repositories
+        );
+        for (Dependency dependency : resolved) {
+            if (dependency.getArtifactId().equals("d")) {
+                assertEquals(Collections.singleton(GROUP + "a"), dependency.getRoots());
+            } else if (dependency.getArtifactId().equals("f")) {
+                assertEquals(Collections.singleton(GROUP + "b"), dependency.getRoots());
+            } else if (dependency.getArtifactId().equals("excluded")) {
+                assertEquals(Collections.singleton(GROUP + "b"), dependency.getRoots());
+            }
+        }
+    }
+
+    private List<String> resolve(String root) {
+        return resolver.resolve(Collections.singletonList(new Dependency(GROUP + root)), repositories).stream()
+                .map(dependency -> dependency.getArtifactId() + ":" + dependency.getVersion())
+                .collect(Collectors.toList());
+    }
+
+    private static String find(List<String> resolved, String artifactId) {
+        return resolved.stream().filter(entry -> entry.startsWith(artifactId + ":")).findFirst().orElse(null);
+    }
+}
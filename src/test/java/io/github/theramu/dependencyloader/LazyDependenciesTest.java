@@ -0,0 +1,71 @@
+package io.github.theramu.dependencyloader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LazyDependenciesTest {
+
+    @TempDir
+    File librariesFolder;
+    @TempDir
+    File repositoryFolder;
+
+    @Test
+    void resourceLookupsLoadTheDependency() throws IOException {
+        createJar("data", "com/example/lazy/data/values.txt");
+        DependencyLoader loader = newLoader();
+        loader.registerLazyDependency("com.example:data:1.0", new String[]{"com.example.lazy"}, getRepositories());
+        DependencyClassLoader classLoader = loader.getClassLoader();
+
+        assertNull(classLoader.getResource("com/example/other/values.txt"));
+        assertNotNull(classLoader.getResource("com/example/lazy/data/values.txt"));
+    }
+
+    @Test
+    void serviceLookupsLoadEveryDependencyOfTheService() throws IOException {
+        createJar("first", "META-INF/services/com.example.api.Service");
+        createJar("second", "META-INF/services/com.example.api.Service");
+        DependencyLoader loader = newLoader();
+        // 两个依赖都提供 com.example.api 中的服务
+        loader.registerLazyDependency("com.example:first:1.0", new String[]{"com.example.first", "com.example.api"}, getRepositories());
+        loader.registerLazyDependency("com.example:second:1.0", new String[]{"com.example.second", "com.example.api"}, getRepositories());
+
+        List<?> urls = Collections.list(loader.getClassLoader().getResources("META-INF/services/com.example.api.Service"));
+        assertEquals(2, urls.size());
+    }
+
+    private DependencyLoader newLoader() {
+        DependencyLoader loader = new DependencyLoader(librariesFolder);
+        loader.setIsolated(true);
+        return loader;
+    }
+
+    private String[] getRepositories() {
+        return new String[]{repositoryFolder.toURI().toString()};
+    }
+
+    private void createJar(String artifactId, String entry) throws IOException {
+        File file = new File(repositoryFolder, "com/example/" + artifactId + "/1.0/" + artifactId + "-1.0.jar");
+        file.getParentFile().mkdirs();
+        try (OutputStream outputStream = Files.newOutputStream(file.toPath());
+             JarOutputStream jarOutputStream = new JarOutputStream(outputStream)) {
+            jarOutputStream.putNextEntry(new ZipEntry(entry));
+            jarOutputStream.write(artifactId.getBytes(StandardCharsets.UTF_8));
+            jarOutputStream.closeEntry();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.theramu.dependencyloader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LocalRepositoryIndexTest {
+
+    @TempDir
+    File librariesFolder;
+
+    @Test
+    void exactVersionsMatchTheirFolderOnly() throws IOException {
+        File one = createJar("1");
+        File oneDotZero = createJar("1.0");
+        LocalRepositoryIndex index = new LocalRepositoryIndex(Logger.getGlobal(), librariesFolder);
+
+        assertEquals(one, index.find(dependency("1")));
+        assertEquals(oneDotZero, index.find(dependency("1.0")));
+        assertNull(index.find(dependency("1.0.0")));
+    }
+
+    @Test
+    void removingOneOfEqualVersionsKeepsTheOther() throws IOException {
+        createJar("1");
+        File oneDotZero = createJar("1.0");
+        LocalRepositoryIndex index = new LocalRepositoryIndex(Logger.getGlobal(), librariesFolder);
+        index.find(dependency("1"));
+
+        index.remove("com.example", "demo", "1");
+        assertNull(index.find(dependency("1")));
+        assertEquals(oneDotZero, index.find(dependency("1.0")));
+        assertEquals(oneDotZero, index.find(dependency("latest")));
+    }
+
+    @Test
+    void keywordsAndRangesUseMavenOrder() throws IOException {
+        createJar("1.9");
+        File tenth = createJar("1.10");
+        File snapshot = createJar("2.0-SNAPSHOT");
+        LocalRepositoryIndex index = new LocalRepositoryIndex(Logger.getGlobal(), librariesFolder);
+
+        assertEquals(snapshot, index.find(dependency("latest")));
+        assertEquals(tenth, index.find(dependency("release")));
+        assertEquals(tenth, index.find(dependency("[1.0,2.0-SNAPSHOT)")));
+        assertNull(index.find(dependency("[3.0,)")));
+    }
+
+    @Test
+    void otherNotationsFallBackToRegularExpressions() throws IOException {
+        createJar("1.9");
+        File tenth = createJar("1.10");
+        createJar("2.0");
+        LocalRepositoryIndex index = new LocalRepositoryIndex(Logger.getGlobal(), librariesFolder);
+
+        assertEquals(tenth, index.find(dependency("1\\..*")));
+        assertEquals(tenth, index.find(dependency("[1]\\.[0-9]+")));
+        assertNull(index.find(dependency("3\\..*")));
+        assertNull(index.find(dependency("1.(")));
+    }
+
+    private File createJar(String version) throws IOException {
+        File file = new File(librariesFolder, "com/example/demo/" + version + "/demo-" + version + ".jar");
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), new byte[]{1});
+        return file;
+    }
+
+    private static Dependency dependency(String version) {
+        return new Dependency("com.example", "demo", version);
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.theramu.dependencyloader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LockFileTest {
+
+    private static final String REPOSITORY = "https://repo.example.com/maven2/";
+
+    @TempDir
+    File folder;
+
+    @Test
+    void writtenEntriesAreReadBackInOrder() throws IOException {
+        LockFile lockFile = new LockFile(new File(folder, "dependencies.lock"));
+        lockFile.write(Arrays.asList(
+                entry("b", "2.0", REPOSITORY, "bbb", "com.example:b"),
+                entry("a", "1.0", null, "aaa", "com.example:b")
+        ));
+
+        Map<String, LockFile.Entry> entries = lockFile.read();
+        assertEquals(Arrays.asList("com.example:b", "com.example:a"), new ArrayList<>(entries.keySet()));
+        LockFile.Entry b = entries.get("com.example:b");
+        assertEquals("2.0", b.getVersion());
+        assertEquals(REPOSITORY, b.getRepository());
+        assertEquals("bbb", b.getSha1());
+        assertEquals(Collections.singleton("com.example:b"), b.getRoots());
+        assertNull(entries.get("com.example:a").getRepository());
+    }
+
+    @Test
+    void mergeReplacesUpdatedArtifactsAndKeepsTheOthers() throws IOException {
+        LockFile lockFile = new LockFile(new File(folder, "dependencies.lock"));
+        lockFile.write(Arrays.asList(
+                entry("a", "1.0", REPOSITORY, "aaa", "com.example:a"),
+                entry("b", "1.0", REPOSITORY, "bbb", "com.example:a")
+        ));
+        lockFile.write(Collections.singletonList(entry("b", "1.1", REPOSITORY, "ccc", "com.example:c")));
+
+        Map<String, LockFile.Entry> entries = lockFile.read();
+        assertEquals("1.0", entries.get("com.example:a").getVersion());
+        LockFile.Entry b = entries.get("com.example:b");
+        assertEquals("1.1", b.getVersion());
+        assertEquals("ccc", b.getSha1());
+        assertEquals(new LinkedHashSet<>(Arrays.asList("com.example:c", "com.example:a")), b.getRoots());
+    }
+
+    @Test
+    void missingRepositoryKeepsTheRecordedOne() throws IOException {
+        LockFile lockFile = new LockFile(new File(folder, "dependencies.lock"));
+        lockFile.write(Collections.singletonList(entry("a", "1.0", REPOSITORY, "aaa", "com.example:a")));
+        // 从本地缓存加载的依赖没有仓库信息
+        lockFile.write(Collections.singletonList(entry("a", "1.0", null, "aaa", "com.example:a")));
+        assertEquals(REPOSITORY, lockFile.read().get("com.example:a").getRepository());
+
+        lockFile.write(Collections.singletonList(entry("a", "1.1", null, "bbb", "com.example:a")));
+        assertEquals(REPOSITORY, lockFile.read().get("com.example:a").getRepository());
+    }
+
+    @Test
+    void unchangedContentIsNotRewritten() throws IOException {
+        File file = new File(folder, "dependencies.lock");
+        LockFile lockFile = new LockFile(file);
+        lockFile.write(Collections.singletonList(entry("a", "1.0", REPOSITORY, "aaa", "com.example:a")));
+        long lastModified = file.lastModified() - 60000;
+        file.setLastModified(lastModified);
+
+        lockFile.write(Collections.singletonList(entry("a", "1.0", null, "aaa", "com.example:a")));
+        assertEquals(lastModified, file.lastModified());
+
+        lockFile.write(Collections.singletonList(entry("a", "1.0", REPOSITORY, "bbb", "com.example:a")));
+        assertEquals("bbb", lockFile.read().get("com.example:a").getSha1());
+    }
+
+    @Test
+    void malformedLinesAreRejected() throws IOException {
+        File file = new File(folder, "dependencies.lock");
+        Files.write(file.toPath(), Collections.singletonList("com.example:a:1.0\taaa"), StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> new LockFile(file).read());
+    }
+
+    private static LockFile.Entry entry(String artifactId, String version, String repository, String sha1, String... roots) {
+        return new LockFile.Entry("com.example", artifactId, version, repository, sha1, new LinkedHashSet<>(Arrays.asList(roots)));
+    }
+}
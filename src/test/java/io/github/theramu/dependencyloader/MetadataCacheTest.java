@@ -0,0 +1,67 @@
+package io.github.theramu.dependencyloader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MetadataCacheTest {
+
+    @TempDir
+    File librariesFolder;
+    @TempDir
+    File repositoryFolder;
+
+    @Test
+    void saveMergesWhatOtherProcessesSaved() throws IOException {
+        String repository = repositoryFolder.toURI().toString();
+        writeMetadata("a", "1.0", "1.1");
+        writeMetadata("b", "2.0");
+        MetadataCache first = newCache();
+        MetadataCache second = newCache();
+
+        assertEquals(Arrays.asList("1.0", "1.1"), first.getMetadata(repository, "com.example", "a").getVersions());
+        assertEquals("2.0", second.getMetadata(repository, "com.example", "b").getRelease());
+        first.save();
+        second.save();
+
+        // 删除远程文件后仍能从缓存读取，说明两个实例的条目都已保存
+        deleteMetadata("a");
+        deleteMetadata("b");
+        MetadataCache reloaded = newCache();
+        assertEquals("1.1", reloaded.getMetadata(repository, "com.example", "a").getRelease());
+        assertEquals("2.0", reloaded.getMetadata(repository, "com.example", "b").getRelease());
+        assertNull(reloaded.getMetadata(repository, "com.example", "c"));
+    }
+
+    private MetadataCache newCache() {
+        return new MetadataCache(new DependencyLoader(librariesFolder));
+    }
+
+    private void writeMetadata(String artifactId, String... versions) throws IOException {
+        StringBuilder builder = new StringBuilder("<metadata><groupId>com.example</groupId><artifactId>").append(artifactId)
+                .append("</artifactId><versioning><release>").append(versions[versions.length - 1]).append("</release><versions>");
+        for (String version : versions) {
+            builder.append("<version>").append(version).append("</version>");
+        }
+        builder.append("</versions></versioning></metadata>");
+        File file = getMetadataFile(artifactId);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void deleteMetadata(String artifactId) {
+        getMetadataFile(artifactId).delete();
+    }
+
+    private File getMetadataFile(String artifactId) {
+        return new File(repositoryFolder, "com/example/" + artifactId + "/maven-metadata.xml");
+    }
+}
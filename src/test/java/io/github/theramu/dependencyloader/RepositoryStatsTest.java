@@ -0,0 +1,78 @@
+package io.github.theramu.dependencyloader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RepositoryStatsTest {
+
+    private static final String FAST = "https://fast.example.com/maven2/";
+    private static final String SLOW = "https://slow.example.com/maven2/";
+    private static final String BROKEN = "https://broken.example.com/maven2/";
+    private static final String UNKNOWN = "https://unknown.example.com/maven2/";
+
+    @TempDir
+    File librariesFolder;
+
+    @Test
+    void rankingSurvivesARestart() {
+        RepositoryStats stats = newStats();
+        stats.record(FAST, 1, "com.example", "a", "1.0", 10_000_000, TimeUnit.SECONDS.toNanos(1));
+        stats.record(SLOW, 1, "com.example", "a", "1.0", 100_000, TimeUnit.SECONDS.toNanos(1));
+        assertEquals(Arrays.asList(FAST, SLOW), stats.order(Arrays.asList(SLOW, FAST)));
+        stats.save();
+
+        RepositoryStats reloaded = newStats();
+        assertEquals(Arrays.asList(FAST, SLOW), reloaded.order(Arrays.asList(SLOW, FAST)));
+        // 没有样本的仓库与最好的仓库并列，并保持给定的顺序
+        assertEquals(Arrays.asList(UNKNOWN, FAST, SLOW), reloaded.order(Arrays.asList(UNKNOWN, SLOW, FAST)));
+    }
+
+    @Test
+    void missingArtifactsAndCooldownsSurviveARestart() {
+        RepositoryStats stats = newStats();
+        stats.record(FAST, 2, "com.example", "a", "1.0", 0, 0);
+        for (int i = 0; i < 3; i++) {
+            stats.record(BROKEN, 5, "com.example", "a", "1.0", 0, 0);
+        }
+        stats.save();
+
+        RepositoryStats reloaded = newStats();
+        assertTrue(reloaded.isNotFound(FAST, "com.example", "a", "1.0"));
+        assertFalse(reloaded.isNotFound(FAST, "com.example", "a", "1.1"));
+        assertEquals(Arrays.asList(FAST, UNKNOWN), reloaded.order(Arrays.asList(BROKEN, FAST, UNKNOWN)));
+    }
+
+    @Test
+    void saveMergesWhatOtherProcessesSaved() {
+        RepositoryStats first = newStats();
+        RepositoryStats second = newStats();
+        // 两个实例都在对方保存之前读取了统计文件
+        first.order(Arrays.asList(FAST, SLOW));
+        second.order(Arrays.asList(FAST, SLOW));
+
+        first.record(FAST, 1, "com.example", "a", "1.0", 10_000_000, TimeUnit.SECONDS.toNanos(1));
+        first.record(SLOW, 2, "com.example", "b", "1.0", 0, 0);
+        first.save();
+        second.record(SLOW, 1, "com.example", "a", "1.0", 100_000, TimeUnit.SECONDS.toNanos(1));
+        for (int i = 0; i < 3; i++) {
+            second.record(BROKEN, 5, "com.example", "a", "1.0", 0, 0);
+        }
+        second.save();
+
+        RepositoryStats reloaded = newStats();
+        assertEquals(Arrays.asList(FAST, SLOW), reloaded.order(Arrays.asList(SLOW, BROKEN, FAST)));
+        assertTrue(reloaded.isNotFound(SLOW, "com.example", "b", "1.0"));
+    }
+
+    private RepositoryStats newStats() {
+        return new RepositoryStats(new DependencyLoader(librariesFolder));
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.theramu.dependencyloader.version;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ComparableVersionTest {
+
+    @Test
+    void trailingZerosAndReleaseQualifiersAreEqual() {
+        assertEqualVersions("1", "1.0");
+        assertEqualVersions("1.0", "1.0.0");
+        assertEqualVersions("1.0", "1.0-final");
+        assertEqualVersions("1.0", "1.0-ga");
+        assertEqualVersions("1.0-cr1", "1.0-rc1");
+        assertEqualVersions("1.0-a1", "1.0-alpha-1");
+    }
+
+    @Test
+    void numbersCompareNumerically() {
+        assertOrder("1.9", "1.10");
+        assertOrder("1.99", "2");
+        assertOrder("1.0.1", "1.1");
+        assertOrder("9", "10.0.0");
+        assertOrder("1.2.3", "1.2.30");
+    }
+
+    @Test
+    void qualifiersFollowMavenOrder() {
+        assertOrder(
+                "1.0-alpha-1",
+                "1.0-alpha-2",
+                "1.0-beta",
+                "1.0-milestone-1",
+                "1.0-rc1",
+                "1.0-SNAPSHOT",
+                "1.0",
+                "1.0-sp1",
+                "1.0-unknown",
+                "1.0.1"
+        );
+    }
+
+    @Test
+    void unknownQualifiersSortLexicallyAfterKnownOnes() {
+        assertOrder("1.0-sp", "1.0-abc", "1.0-xyz");
+    }
+
+    @Test
+    void qualifiersAreCaseInsensitive() {
+        assertEqualVersions("1.0-RC1", "1.0-rc1");
+        assertEqualVersions("1.0-Final", "1.0");
+    }
+
+    @Test
+    void snapshotIsDetectedBySuffix() {
+        assertTrue(new ComparableVersion("1.0-SNAPSHOT").isSnapshot());
+        assertFalse(new ComparableVersion("1.0").isSnapshot());
+        assertFalse(new ComparableVersion("1.0-rc1").isSnapshot());
+    }
+
+    @Test
+    void toStringKeepsTheOriginalNotation() {
+        assertEquals("1.0-Final", new ComparableVersion("1.0-Final").toString());
+    }
+
+    private static void assertEqualVersions(String a, String b) {
+        ComparableVersion left = new ComparableVersion(a);
+        ComparableVersion right = new ComparableVersion(b);
+        assertEquals(0, left.compareTo(right), a + " should equal " + b);
+        assertEquals(0, right.compareTo(left), b + " should equal " + a);
+        assertEquals(left, right);
+        assertEquals(left.hashCode(), right.hashCode());
+    }
+
+    private static void assertOrder(String... versions) {
+        for (int i = 0; i < versions.length - 1; i++) {
+            ComparableVersion lower = new ComparableVersion(versions[i]);
+            ComparableVersion higher = new ComparableVersion(versions[i + 1]);
+            assertTrue(lower.compareTo(higher) < 0, versions[i] + " should be lower than " + versions[i + 1]);
+            assertTrue(higher.compareTo(lower) > 0, versions[i + 1] + " should be higher than " + versions[i]);
+            assertNotEquals(lower, higher);
+        }
+    }
+}
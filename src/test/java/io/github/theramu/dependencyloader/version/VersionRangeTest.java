@@ -0,0 +1,104 @@
+package io.github.theramu.dependencyloader.version;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VersionRangeTest {
+
+    @Test
+    void detectsRanges() {
+        assertTrue(VersionRange.isRange("[1.0,2.0)"));
+        assertTrue(VersionRange.isRange("(,1.0]"));
+        assertFalse(VersionRange.isRange("1.0"));
+        assertFalse(VersionRange.isRange("latest"));
+    }
+
+    @Test
+    void closedBoundsIncludeTheirVersions() {
+        VersionRange range = VersionRange.parse("[1.0,2.0]");
+        assertContains(range, "1.0", "1.5", "2.0", "2");
+        assertNotContains(range, "0.9", "1.0-SNAPSHOT", "2.0.1");
+    }
+
+    @Test
+    void openBoundsExcludeTheirVersions() {
+        VersionRange range = VersionRange.parse("(1.0,2.0)");
+        assertContains(range, "1.0.1", "1.9.9", "2.0-rc1");
+        assertNotContains(range, "1.0", "1", "2.0");
+    }
+
+    @Test
+    void missingBoundsAreUnbounded() {
+        assertContains(VersionRange.parse("(,1.0]"), "0.1", "1.0");
+        assertNotContains(VersionRange.parse("(,1.0]"), "1.0.1");
+        assertContains(VersionRange.parse("[1.5,)"), "1.5", "99");
+        assertNotContains(VersionRange.parse("[1.5,)"), "1.4");
+    }
+
+    @Test
+    void singleVersionRangeMatchesOnlyThatVersion() {
+        VersionRange range = VersionRange.parse("[1.0]");
+        assertContains(range, "1.0", "1");
+        assertNotContains(range, "1.0.1", "0.9");
+    }
+
+    @Test
+    void multipleRangesMatchAnyOfThem() {
+        VersionRange range = VersionRange.parse("[1,2),[3,4)");
+        assertContains(range, "1.5", "3.0", "3.9");
+        assertNotContains(range, "2.0", "2.5", "4.0");
+    }
+
+    @Test
+    void rejectsInvalidRanges() {
+        assertThrows(IllegalArgumentException.class, () -> VersionRange.parse("[1.0,2.0"));
+        assertThrows(IllegalArgumentException.class, () -> VersionRange.parse("(1.0)"));
+        assertThrows(IllegalArgumentException.class, () -> VersionRange.parse("[1.0,2.0),3.0"));
+        assertThrows(IllegalArgumentException.class, () -> VersionRange.parse(""));
+    }
+
+    @Test
+    void matchHighestPicksTheHighestVersionInAnyRestriction() {
+        NavigableMap<ComparableVersion, String> versions = versions("1.0", "1.5", "2.0", "3.2", "4.0");
+        assertEquals("3.2", value(VersionRange.parse("[1,2),[3,4)").matchHighest(versions)));
+        assertEquals("1.5", value(VersionRange.parse("[1.0,2.0)").matchHighest(versions)));
+        assertEquals("2.0", value(VersionRange.parse("[1.0,2.0]").matchHighest(versions)));
+        assertEquals("4.0", value(VersionRange.parse("[1.0,)").matchHighest(versions)));
+        assertEquals("1.0", value(VersionRange.parse("(,1.5)").matchHighest(versions)));
+        assertNull(VersionRange.parse("(4.0,)").matchHighest(versions));
+        assertNull(VersionRange.parse("[2.1,3.0]").matchHighest(versions));
+    }
+
+    private static void assertContains(VersionRange range, String... versions) {
+        for (String version : versions) {
+            assertTrue(range.containsVersion(new ComparableVersion(version)), range + " should contain " + version);
+        }
+    }
+
+    private static void assertNotContains(VersionRange range, String... versions) {
+        for (String version : versions) {
+            assertFalse(range.containsVersion(new ComparableVersion(version)), range + " should not contain " + version);
+        }
+    }
+
+    private static NavigableMap<ComparableVersion, String> versions(String... versions) {
+        NavigableMap<ComparableVersion, String> map = new TreeMap<>();
+        for (String version : versions) {
+            map.put(new ComparableVersion(version), version);
+        }
+        return map;
+    }
+
+    private static String value(Map.Entry<ComparableVersion, String> entry) {
+        return entry == null ? null : entry.getValue();
+    }
+}